@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+/**
+ * Common prefix and suffix of two strings.
+ *
+ * For edit distances where matching two equal characters costs nothing, and
+ * where all insertions and deletions have the same cost (Levenshtein, OSA,
+ * Damerau, LCS...), there is always an optimal alignment that matches the
+ * common prefix and suffix character by character. These can thus be
+ * removed before running the dynamic programming algorithm, which, for
+ * similar strings, shrinks the matrix by orders of magnitude.
+ *
+ * @author Thibault Debatty
+ */
+final class Affixes {
+
+    private Affixes() {
+    }
+
+    /**
+     * Length of the longest common prefix of s1 and s2.
+     * @param s1
+     * @param s2
+     * @return the length of the common prefix
+     */
+    static int prefix(final String s1, final String s2) {
+        int max = Math.min(s1.length(), s2.length());
+        int prefix = 0;
+        while (prefix < max && s1.charAt(prefix) == s2.charAt(prefix)) {
+            prefix++;
+        }
+        return prefix;
+    }
+
+    /**
+     * Length of the longest common suffix of s1 and s2, that does not
+     * overlap with the first prefix characters.
+     * @param s1
+     * @param s2
+     * @param prefix length of the common prefix, as returned by prefix(s1, s2)
+     * @return the length of the common suffix
+     */
+    static int suffix(final String s1, final String s2, final int prefix) {
+        int max = Math.min(s1.length(), s2.length()) - prefix;
+        int i1 = s1.length() - 1;
+        int i2 = s2.length() - 1;
+        int suffix = 0;
+        while (suffix < max
+                && s1.charAt(i1 - suffix) == s2.charAt(i2 - suffix)) {
+            suffix++;
+        }
+        return suffix;
+    }
+}
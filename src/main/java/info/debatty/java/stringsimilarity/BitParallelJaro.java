@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+/**
+ * Bit-parallel matching of the characters for the Jaro (and Jaro-Winkler)
+ * similarity.
+ *
+ * Each character of the shortest string is matched with the first unmatched
+ * equal character of the longest string, in a window around the same
+ * position. Using the match masks of the longest string (bit i of the mask of
+ * c is set if max[i] == c), the candidates are mask(c) &amp; ~matched &amp;
+ * window, and the match is the lowest bit of the candidates. If the longest
+ * string fits in a word, each character thus costs a few word operations,
+ * instead of a scan of the window. Longer strings are processed by blocks of
+ * 64 bits, and only the words that overlap the window are inspected.
+ *
+ * @author Thibault Debatty
+ */
+final class BitParallelJaro {
+
+    private static final int WORD_MASK = Long.SIZE - 1;
+    private static final int WORD_SHIFT = 6;
+
+    private BitParallelJaro() {
+    }
+
+    /**
+     * Match the characters of min with the characters of max, and set the
+     * corresponding flags.
+     * @param min the shortest string
+     * @param max the compiled longest string
+     * @param max_unmatched stop when more characters of min remain unmatched
+     * @param min_flags cleared flags for the characters of min
+     * @param max_flags cleared flags for the characters of max
+     * @return the number of matching characters, or -1 if more than
+     * max_unmatched characters of min are not matched
+     */
+    static int matches(
+            final String min,
+            final CompiledPattern max,
+            final int max_unmatched,
+            final long[] min_flags,
+            final long[] max_flags) {
+
+        if (max.words() == 1) {
+            return matchesSingleWord(
+                    min, max, max_unmatched, min_flags, max_flags);
+        }
+
+        return matchesBlocks(min, max, max_unmatched, min_flags, max_flags);
+    }
+
+    private static int matchesSingleWord(
+            final String min,
+            final CompiledPattern max,
+            final int max_unmatched,
+            final long[] min_flags,
+            final long[] max_flags) {
+
+        int length = max.length();
+        int range = Math.max(length / 2 - 1, 0);
+        long matched = 0L;
+        int matches = 0;
+
+        for (int mi = 0; mi < min.length(); mi++) {
+            // number of unmatched characters so far
+            if (mi - matches > max_unmatched) {
+                return -1;
+            }
+
+            int lo = Math.max(mi - range, 0);
+            int hi = Math.min(mi + range + 1, length);
+            if (lo >= hi) {
+                break;
+            }
+
+            long candidates = max.maskOf(min.charAt(mi), 0) & ~matched
+                    & (-1L << lo) & (-1L >>> (Long.SIZE - hi));
+            if (candidates != 0) {
+                matched |= candidates & -candidates;
+                min_flags[mi >>> WORD_SHIFT] |= 1L << mi;
+                matches++;
+            }
+        }
+
+        if (min.length() - matches > max_unmatched) {
+            return -1;
+        }
+
+        max_flags[0] = matched;
+        return matches;
+    }
+
+    private static int matchesBlocks(
+            final String min,
+            final CompiledPattern max,
+            final int max_unmatched,
+            final long[] min_flags,
+            final long[] max_flags) {
+
+        int length = max.length();
+        int range = Math.max(length / 2 - 1, 0);
+        int matches = 0;
+
+        for (int mi = 0; mi < min.length(); mi++) {
+            // number of unmatched characters so far
+            if (mi - matches > max_unmatched) {
+                return -1;
+            }
+
+            int lo = Math.max(mi - range, 0);
+            int hi = Math.min(mi + range + 1, length);
+            if (lo >= hi) {
+                break;
+            }
+
+            int id = max.id(min.charAt(mi));
+            if (id < 0) {
+                continue;
+            }
+
+            int first = lo >>> WORD_SHIFT;
+            int last = (hi - 1) >>> WORD_SHIFT;
+            for (int w = first; w <= last; w++) {
+                long candidates = max.mask(id, w) & ~max_flags[w];
+                if (w == first) {
+                    candidates &= -1L << (lo & WORD_MASK);
+                }
+                if (w == last) {
+                    candidates &= -1L >>> (WORD_MASK - ((hi - 1) & WORD_MASK));
+                }
+
+                if (candidates != 0) {
+                    max_flags[w] |= candidates & -candidates;
+                    min_flags[mi >>> WORD_SHIFT] |= 1L << mi;
+                    matches++;
+                    break;
+                }
+            }
+        }
+
+        if (min.length() - matches > max_unmatched) {
+            return -1;
+        }
+
+        return matches;
+    }
+}
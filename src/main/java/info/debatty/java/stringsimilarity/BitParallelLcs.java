@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+
+/**
+ * Bit-parallel computation of the length of the longest common subsequence,
+ * as described by Allison and Dix "A bit-string longest-common-subsequence
+ * algorithm" (1986) and Hyyrö "Bit-parallel LCS-length computation
+ * revisited" (2004).
+ *
+ * A column of the DP matrix is represented by a bit vector V, where a zero
+ * bit marks a row where the LCS length increases. Each character of the text
+ * updates V with one addition: U = V &amp; PM, V = (V + U) | (V - U). The
+ * cost is thus O(ceil(m / 64) * n) where m is the length of the pattern and
+ * n the length of the text, and the space is O(m / 64).
+ *
+ * @author Thibault Debatty
+ */
+final class BitParallelLcs {
+
+    private static final int LAST_BIT = Long.SIZE - 1;
+
+    private BitParallelLcs() {
+    }
+
+    /**
+     * Compute the length of the LCS between the compiled pattern and
+     * text[from, to).
+     * @param pattern
+     * @param text
+     * @param from
+     * @param to
+     * @param workspace
+     * @return the length of the LCS
+     */
+    static int length(
+            final CompiledPattern pattern,
+            final String text,
+            final int from,
+            final int to,
+            final Workspace workspace) {
+
+        if (pattern.length() == 0) {
+            return 0;
+        }
+
+        if (pattern.words() == 1) {
+            return lengthSingleWord(pattern, text, from, to);
+        }
+
+        return lengthBlocks(pattern, text, from, to, workspace);
+    }
+
+    private static int lengthSingleWord(
+            final CompiledPattern pattern,
+            final String text,
+            final int from,
+            final int to) {
+
+        long v = -1L;
+        for (int j = from; j < to; j++) {
+            long u = v & pattern.maskOf(text.charAt(j), 0);
+            v = (v + u) | (v - u);
+        }
+
+        return Long.bitCount(~v & lastWordMask(pattern.length()));
+    }
+
+    private static int lengthBlocks(
+            final CompiledPattern pattern,
+            final String text,
+            final int from,
+            final int to,
+            final Workspace workspace) {
+
+        int words = pattern.words();
+        long[] v = workspace.longs(0, words);
+        Arrays.fill(v, 0, words, -1L);
+
+        for (int j = from; j < to; j++) {
+            int id = pattern.id(text.charAt(j));
+            if (id < 0) {
+                // U = 0 => V is unchanged
+                continue;
+            }
+
+            long carry = 0L;
+            for (int w = 0; w < words; w++) {
+                long vw = v[w];
+                long u = vw & pattern.mask(id, w);
+
+                // V + U with the carry of the previous word
+                long sum = vw + u + carry;
+                carry = ((vw & u) | ((vw | u) & ~sum)) >>> LAST_BIT;
+
+                // U is a subset of V, so V - U never borrows
+                v[w] = sum | (vw - u);
+            }
+        }
+
+        int length = 0;
+        for (int w = 0; w < words - 1; w++) {
+            length += Long.bitCount(~v[w]);
+        }
+        length += Long.bitCount(
+                ~v[words - 1] & lastWordMask(pattern.length()));
+        return length;
+    }
+
+    /**
+     * Mask of the bits of the last word that correspond to characters of
+     * a pattern of length m.
+     */
+    private static long lastWordMask(final int m) {
+        int bits = m % Long.SIZE;
+        if (bits == 0) {
+            return -1L;
+        }
+        return (1L << bits) - 1;
+    }
+}
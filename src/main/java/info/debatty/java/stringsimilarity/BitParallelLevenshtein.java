@@ -0,0 +1,179 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+
+/**
+ * Bit-parallel computation of the Levenshtein distance, as described by Myers
+ * "A fast bit-vector algorithm for approximate string matching based on
+ * dynamic programming" (1999), and extended to blocks of words by Hyyrö
+ * "A bit-vector algorithm for computing Levenshtein and Damerau edit
+ * distances" (2003).
+ *
+ * Instead of the DP matrix, the algorithm keeps the vertical differences
+ * between adjacent cells of a column (+1, 0 or -1) as two bit vectors, and
+ * updates a whole column with a few word operations. The cost is thus
+ * O(ceil(m / 64) * n) where m is the length of the pattern and n the length
+ * of the text.
+ *
+ * @author Thibault Debatty
+ */
+final class BitParallelLevenshtein {
+
+    private static final int LAST_BIT = Long.SIZE - 1;
+
+    private BitParallelLevenshtein() {
+    }
+
+    /**
+     * Compute the Levenshtein distance between the compiled pattern and
+     * text[from, to).
+     * @param pattern
+     * @param text
+     * @param from
+     * @param to
+     * @param workspace
+     * @return the Levenshtein distance
+     */
+    static int distance(
+            final CompiledPattern pattern,
+            final String text,
+            final int from,
+            final int to,
+            final Workspace workspace) {
+
+        int m = pattern.length();
+        if (m == 0) {
+            return to - from;
+        }
+
+        if (pattern.words() == 1) {
+            return distanceSingleWord(pattern, text, from, to);
+        }
+
+        return distanceBlocks(pattern, text, from, to, workspace);
+    }
+
+    private static int distanceSingleWord(
+            final CompiledPattern pattern,
+            final String text,
+            final int from,
+            final int to) {
+
+        int m = pattern.length();
+        long last = 1L << (m - 1);
+
+        long vp = -1L;
+        long vn = 0L;
+        int score = m;
+
+        for (int j = from; j < to; j++) {
+            long pm = pattern.maskOf(text.charAt(j), 0);
+            long x = pm | vn;
+            long d0 = (((x & vp) + vp) ^ vp) | x;
+            long hp = vn | ~(d0 | vp);
+            long hn = vp & d0;
+
+            if ((hp & last) != 0) {
+                score++;
+            }
+            if ((hn & last) != 0) {
+                score--;
+            }
+
+            // first row of the matrix is 0, 1, 2... => shift in a +1
+            hp = (hp << 1) | 1L;
+            hn = hn << 1;
+
+            vp = hn | ~(d0 | hp);
+            vn = hp & d0;
+        }
+
+        return score;
+    }
+
+    private static int distanceBlocks(
+            final CompiledPattern pattern,
+            final String text,
+            final int from,
+            final int to,
+            final Workspace workspace) {
+
+        int m = pattern.length();
+        int words = pattern.words();
+        long last = 1L << ((m - 1) % Long.SIZE);
+
+        long[] vp = workspace.longs(0, words);
+        long[] vn = workspace.longs(1, words);
+        Arrays.fill(vp, 0, words, -1L);
+        Arrays.fill(vn, 0, words, 0L);
+
+        int score = m;
+
+        for (int j = from; j < to; j++) {
+            int id = pattern.id(text.charAt(j));
+
+            // horizontal deltas entering the first block (top row: +1)
+            long hp_carry = 1L;
+            long hn_carry = 0L;
+
+            for (int w = 0; w < words; w++) {
+                long pm = 0L;
+                if (id >= 0) {
+                    pm = pattern.mask(id, w);
+                }
+
+                long vpw = vp[w];
+                long vnw = vn[w];
+
+                long x = pm | hn_carry;
+                long d0 = (((x & vpw) + vpw) ^ vpw) | x | vnw;
+                long hp = vnw | ~(d0 | vpw);
+                long hn = d0 & vpw;
+
+                if (w == words - 1) {
+                    if ((hp & last) != 0) {
+                        score++;
+                    }
+                    if ((hn & last) != 0) {
+                        score--;
+                    }
+                }
+
+                long hp_in = hp_carry;
+                long hn_in = hn_carry;
+                hp_carry = hp >>> LAST_BIT;
+                hn_carry = hn >>> LAST_BIT;
+                hp = (hp << 1) | hp_in;
+                hn = (hn << 1) | hn_in;
+
+                vp[w] = hn | ~(d0 | hp);
+                vn[w] = hp & d0;
+            }
+        }
+
+        return score;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+
+/**
+ * Bit-parallel computation of the Optimal String Alignment distance, as
+ * described by Hyyrö "A bit-vector algorithm for computing Levenshtein and
+ * Damerau edit distances" (2003).
+ *
+ * This is the algorithm of Myers (see BitParallelLevenshtein), where a
+ * transposition of text[j - 1, j] with pattern[i - 1, i] also creates a zero
+ * diagonal difference in cell (i, j). The cost is still O(ceil(m / 64) * n)
+ * where m is the length of the pattern and n the length of the text.
+ *
+ * @author Thibault Debatty
+ */
+final class BitParallelOsa {
+
+    private static final int LAST_BIT = Long.SIZE - 1;
+
+    private BitParallelOsa() {
+    }
+
+    /**
+     * Compute the Optimal String Alignment distance between the compiled
+     * pattern and text[from, to).
+     * @param pattern
+     * @param text
+     * @param from
+     * @param to
+     * @param workspace
+     * @return the OSA distance
+     */
+    static int distance(
+            final CompiledPattern pattern,
+            final String text,
+            final int from,
+            final int to,
+            final Workspace workspace) {
+
+        int m = pattern.length();
+        if (m == 0) {
+            return to - from;
+        }
+
+        if (pattern.words() == 1) {
+            return distanceSingleWord(pattern, text, from, to);
+        }
+
+        return distanceBlocks(pattern, text, from, to, workspace);
+    }
+
+    private static int distanceSingleWord(
+            final CompiledPattern pattern,
+            final String text,
+            final int from,
+            final int to) {
+
+        int m = pattern.length();
+        long last = 1L << (m - 1);
+
+        long vp = -1L;
+        long vn = 0L;
+        long d0 = 0L;
+        long pm_previous = 0L;
+        int score = m;
+
+        for (int j = from; j < to; j++) {
+            long pm = pattern.maskOf(text.charAt(j), 0);
+
+            // transposition: pattern[i - 1] == text[j] and
+            // pattern[i] == text[j - 1], where the previous column had no
+            // zero diagonal difference on row i - 1
+            long tr = (((~d0) & pm) << 1) & pm_previous;
+
+            d0 = (((pm & vp) + vp) ^ vp) | pm | vn | tr;
+            long hp = vn | ~(d0 | vp);
+            long hn = vp & d0;
+
+            if ((hp & last) != 0) {
+                score++;
+            }
+            if ((hn & last) != 0) {
+                score--;
+            }
+
+            // first row of the matrix is 0, 1, 2... => shift in a +1
+            hp = (hp << 1) | 1L;
+            hn = hn << 1;
+
+            vp = hn | ~(d0 | hp);
+            vn = hp & d0;
+            pm_previous = pm;
+        }
+
+        return score;
+    }
+
+    private static int distanceBlocks(
+            final CompiledPattern pattern,
+            final String text,
+            final int from,
+            final int to,
+            final Workspace workspace) {
+
+        int m = pattern.length();
+        int words = pattern.words();
+        long last = 1L << ((m - 1) % Long.SIZE);
+
+        long[] vp = workspace.longs(0, words);
+        long[] vn = workspace.longs(1, words);
+        long[] d0 = workspace.longs(2, words);
+        Arrays.fill(vp, 0, words, -1L);
+        Arrays.fill(vn, 0, words, 0L);
+        Arrays.fill(d0, 0, words, 0L);
+
+        int score = m;
+        int id_previous = -1;
+
+        for (int j = from; j < to; j++) {
+            int id = pattern.id(text.charAt(j));
+
+            // horizontal deltas entering the first block (top row: +1)
+            long hp_carry = 1L;
+            long hn_carry = 0L;
+
+            // transposition candidate entering the first block
+            long tr_carry = 0L;
+
+            for (int w = 0; w < words; w++) {
+                long pm = 0L;
+                if (id >= 0) {
+                    pm = pattern.mask(id, w);
+                }
+
+                long pm_previous = 0L;
+                if (id_previous >= 0) {
+                    pm_previous = pattern.mask(id_previous, w);
+                }
+
+                long vpw = vp[w];
+                long vnw = vn[w];
+
+                long candidates = (~d0[w]) & pm;
+                long tr = ((candidates << 1) | tr_carry) & pm_previous;
+                tr_carry = candidates >>> LAST_BIT;
+
+                long x = pm | hn_carry;
+                long d0w = (((x & vpw) + vpw) ^ vpw) | x | vnw | tr;
+                long hp = vnw | ~(d0w | vpw);
+                long hn = d0w & vpw;
+
+                if (w == words - 1) {
+                    if ((hp & last) != 0) {
+                        score++;
+                    }
+                    if ((hn & last) != 0) {
+                        score--;
+                    }
+                }
+
+                long hp_in = hp_carry;
+                long hn_in = hn_carry;
+                hp_carry = hp >>> LAST_BIT;
+                hn_carry = hn >>> LAST_BIT;
+                hp = (hp << 1) | hp_in;
+                hn = (hn << 1) | hn_in;
+
+                vp[w] = hn | ~(d0w | hp);
+                vn[w] = hp & d0w;
+                d0[w] = d0w;
+            }
+
+            id_previous = id;
+        }
+
+        return score;
+    }
+}
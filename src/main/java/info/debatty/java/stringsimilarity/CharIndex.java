@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash table that maps the distinct characters of a string to
+ * dense ids 0, 1, 2... in order of first appearance. Used by the bit-parallel
+ * algorithms to index their per-character tables without boxing.
+ *
+ * Instances are mutable and can be cleared and reused.
+ *
+ * @author Thibault Debatty
+ */
+final class CharIndex {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 2 * (Character.MAX_VALUE + 1);
+    private static final int HASH = 0x9E3779B9;
+    private static final int INT_BITS = 32;
+
+    private char[] keys;
+    private int[] ids;
+    private int capacity;
+    private int shift;
+    private int size;
+
+    CharIndex() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Remove all characters, and make sure the table can hold at least
+     * the given number of distinct characters without probing too much.
+     * @param expected upper bound on the number of characters that will be
+     *                 added (typically the length of the string)
+     */
+    void clear(final int expected) {
+        int new_capacity = MIN_CAPACITY;
+        while (new_capacity < 2 * expected && new_capacity < MAX_CAPACITY) {
+            new_capacity <<= 1;
+        }
+
+        if (new_capacity > ids.length) {
+            allocate(new_capacity);
+        } else {
+            // only the active part of the table is used, so there is no
+            // need to clear what a previous (larger) string left behind
+            Arrays.fill(ids, 0, Math.max(capacity, new_capacity), -1);
+            setCapacity(new_capacity);
+        }
+        size = 0;
+    }
+
+    /**
+     * Add a character (if not already present).
+     * @param c
+     * @return the id of c
+     */
+    int add(final char c) {
+        int mask = capacity - 1;
+        int slot = (c * HASH) >>> shift;
+        while (ids[slot] != -1) {
+            if (keys[slot] == c) {
+                return ids[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = c;
+        ids[slot] = size;
+        size++;
+        return size - 1;
+    }
+
+    /**
+     * Get the id of a character.
+     * @param c
+     * @return the id of c, or -1 if c was not added
+     */
+    int get(final char c) {
+        int mask = capacity - 1;
+        int slot = (c * HASH) >>> shift;
+        int id = ids[slot];
+        while (id != -1) {
+            if (keys[slot] == c) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+            id = ids[slot];
+        }
+        return -1;
+    }
+
+    /**
+     * Number of distinct characters in the index.
+     * @return the number of distinct characters
+     */
+    int size() {
+        return size;
+    }
+
+    private void allocate(final int new_capacity) {
+        keys = new char[new_capacity];
+        ids = new int[new_capacity];
+        Arrays.fill(ids, -1);
+        setCapacity(new_capacity);
+    }
+
+    private void setCapacity(final int new_capacity) {
+        capacity = new_capacity;
+        shift = INT_BITS - Integer.numberOfTrailingZeros(new_capacity);
+    }
+}
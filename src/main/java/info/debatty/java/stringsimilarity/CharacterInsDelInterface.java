@@ -5,6 +5,9 @@ package info.debatty.java.stringsimilarity;
  * As an adjunct to CharacterSubstitutionInterface, this interface
  * allows you to specify the cost of deletion or insertion of a
  * character.
+ *
+ * The cost functions may call other metrics, but must not use the workspace
+ * that was explicitly given to WeightedLevenshtein (if any).
  */
 public interface CharacterInsDelInterface {
     /**
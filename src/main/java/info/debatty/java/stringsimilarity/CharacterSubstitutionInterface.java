@@ -32,6 +32,9 @@ package info.debatty.java.stringsimilarity;
  * In a checkspelling application, cost('u', 'i') could be 0.4 because these are
  * next to each other on the keyboard...
  *
+ * The cost function may call other metrics, but must not use the workspace
+ * that was explicitly given to WeightedLevenshtein (if any).
+ *
  * @author Thibault Debatty
  */
 public interface CharacterSubstitutionInterface {
@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+
+/**
+ * A string (the pattern) preprocessed for the bit-parallel algorithms: for
+ * each distinct character c of the pattern, a bit vector where bit i is set if
+ * pattern[i] == c. Patterns longer than 64 characters are split in blocks of
+ * 64 bits (words).
+ *
+ * Building the match masks costs O(m) for a pattern of length m, so when the
+ * same string is compared to many others it should be compiled once and
+ * reused. Compiled patterns returned by the public compile methods are never
+ * modified, and can be shared between threads.
+ *
+ * @author Thibault Debatty
+ */
+public final class CompiledPattern {
+
+    private final CharIndex index = new CharIndex();
+    private long[] masks = new long[0];
+    private String pattern = "";
+    private int offset;
+    private int length;
+    private int words;
+
+    /**
+     * Create an empty pattern, to be filled using set.
+     */
+    CompiledPattern() {
+    }
+
+    /**
+     * Compile the given string.
+     * @param pattern
+     */
+    CompiledPattern(final String pattern) {
+        if (pattern == null) {
+            throw new NullPointerException("pattern must not be null");
+        }
+        set(pattern, 0, pattern.length());
+    }
+
+    /**
+     * (Re)build the match masks for pattern[from, to).
+     * @param string
+     * @param from index of the first character (inclusive)
+     * @param to index of the last character (exclusive)
+     */
+    void set(final String string, final int from, final int to) {
+        this.pattern = string;
+        this.offset = from;
+        this.length = to - from;
+        this.words = (length + Long.SIZE - 1) / Long.SIZE;
+
+        index.clear(length);
+        for (int i = from; i < to; i++) {
+            index.add(string.charAt(i));
+        }
+
+        int required = index.size() * words;
+        if (masks.length < required) {
+            masks = new long[required];
+        } else {
+            Arrays.fill(masks, 0, required, 0L);
+        }
+
+        for (int i = 0; i < length; i++) {
+            int id = index.get(string.charAt(from + i));
+            masks[id * words + i / Long.SIZE] |= 1L << i;
+        }
+    }
+
+    /**
+     * Return the string that was compiled.
+     * @return the compiled string
+     */
+    public String getPattern() {
+        return pattern.substring(offset, offset + length);
+    }
+
+    /**
+     * Return the length of the compiled string.
+     * @return the length of the compiled string
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Number of 64 bits words required to hold a mask.
+     * @return the number of words per mask
+     */
+    int words() {
+        return words;
+    }
+
+    /**
+     * Character at position i of the pattern.
+     * @param i
+     * @return pattern[i]
+     */
+    char charAt(final int i) {
+        return pattern.charAt(offset + i);
+    }
+
+    /**
+     * Id of the given character, to be used with mask(id, word).
+     * @param c
+     * @return the id, or -1 if c does not appear in the pattern
+     */
+    int id(final char c) {
+        return index.get(c);
+    }
+
+    /**
+     * Number of distinct characters in the pattern.
+     * @return the number of distinct characters
+     */
+    int distinctChars() {
+        return index.size();
+    }
+
+    /**
+     * Match mask of a character, for the given word.
+     * @param id id of the character, as returned by id(c)
+     * @param word
+     * @return the match mask
+     */
+    long mask(final int id, final int word) {
+        return masks[id * words + word];
+    }
+
+    /**
+     * Match mask of a character, for the given word.
+     * @param c
+     * @param word
+     * @return the match mask, 0 if c does not appear in the pattern
+     */
+    long maskOf(final char c, final int word) {
+        int id = index.get(c);
+        if (id < 0) {
+            return 0L;
+        }
+        return masks[id * words + word];
+    }
+}
@@ -52,6 +52,30 @@ public class Cosine extends ShingleBased implements
         super(k);
     }
 
+    /**
+     * Same as Cosine(k), with the given hashing mode for the compact
+     * profiles (see ShingleHashing).
+     *
+     * @param k
+     * @param hashing
+     */
+    public Cosine(final int k, final ShingleHashing hashing) {
+        super(k, hashing);
+    }
+
+    /**
+     * Same as Cosine(k, hashing), with a cache of the compact profiles
+     * of the strings (see ProfileCache).
+     *
+     * @param k
+     * @param hashing
+     * @param cache
+     */
+    public Cosine(final int k, final ShingleHashing hashing,
+            final ProfileCache cache) {
+        super(k, hashing, cache);
+    }
+
     /**
      * Implements Cosine Similarity between strings. The strings are first
      * transformed in vectors of occurrences of k-shingles (sequences of k
@@ -88,11 +112,9 @@ public class Cosine extends ShingleBased implements
             return 0;
         }
 
-        Map<String, Integer> profile1 = getProfile(s1);
-        Map<String, Integer> profile2 = getProfile(s2);
-
-        return dotProduct(profile1, profile2)
-                / (norm(profile1) * norm(profile2));
+        Workspace workspace = Workspace.local();
+        return similarity(getShingleProfile(s1, workspace),
+                getShingleProfile(s2, workspace));
     }
 
     /**
@@ -163,4 +185,175 @@ public class Cosine extends ShingleBased implements
                 / (norm(profile1) * norm(profile2));
     }
 
+    /**
+     * Compute similarity between precomputed compact profiles.
+     *
+     * @param profile1
+     * @param profile2
+     * @return The cosine similarity in the range [0, 1]
+     * @throws NullPointerException if profile1 or profile2 is null.
+     * @throws IllegalArgumentException if the profiles were built with
+     * different values of k.
+     */
+    public final double similarity(
+            final ShingleProfile profile1,
+            final ShingleProfile profile2) {
+        profile1.checkCompatible(profile2);
+
+        return SortedMerge.dotProduct(
+                profile1.keys(), profile1.counts(),
+                profile2.keys(), profile2.counts())
+                / (SortedMerge.norm(profile1.counts())
+                * SortedMerge.norm(profile2.counts()));
+    }
+
+    /**
+     * Compute similarity between sparse vectors of the same vocabulary.
+     *
+     * @param vector1
+     * @param vector2
+     * @return The cosine similarity in the range [0, 1]
+     * @throws NullPointerException if vector1 or vector2 is null.
+     * @throws IllegalArgumentException if the vectors come from different
+     * vocabularies.
+     */
+    public final double similarity(
+            final ShingleVector vector1,
+            final ShingleVector vector2) {
+        vector1.checkCompatible(vector2);
+
+        return SortedMerge.dotProduct(
+                vector1.ids(), vector1.counts(),
+                vector2.ids(), vector2.counts())
+                / (SortedMerge.norm(vector1.counts())
+                * SortedMerge.norm(vector2.counts()));
+    }
+
+    /**
+     * Compute the profile of s, with its norm, to compare it many times with
+     * similarity(CosineProfile, CosineProfile).
+     *
+     * @param s
+     * @return the profile of s, with its norm
+     * @throws NullPointerException if s is null.
+     */
+    public final CosineProfile getCosineProfile(final String s) {
+        return new CosineProfile(getShingleProfile(s));
+    }
+
+    /**
+     * Compute the norm of a compact profile, to compare it many times with
+     * similarity(CosineProfile, CosineProfile).
+     *
+     * @param profile
+     * @return the profile, with its norm
+     * @throws NullPointerException if profile is null.
+     */
+    public final CosineProfile getCosineProfile(final ShingleProfile profile) {
+        if (profile == null) {
+            throw new NullPointerException("profile must not be null");
+        }
+
+        return new CosineProfile(profile);
+    }
+
+    /**
+     * Compute similarity between precomputed profiles with their norm. The
+     * result is the same as similarity(ShingleProfile, ShingleProfile), but
+     * only the dot product is computed.
+     *
+     * @param profile1
+     * @param profile2
+     * @return The cosine similarity in the range [0, 1]
+     * @throws NullPointerException if profile1 or profile2 is null.
+     * @throws IllegalArgumentException if the profiles were built with
+     * different values of k.
+     */
+    public final double similarity(
+            final CosineProfile profile1,
+            final CosineProfile profile2) {
+        ShingleProfile shingles1 = profile1.getProfile();
+        ShingleProfile shingles2 = profile2.getProfile();
+        shingles1.checkCompatible(shingles2);
+
+        return SortedMerge.dotProduct(
+                shingles1.keys(), shingles1.counts(),
+                shingles2.keys(), shingles2.counts())
+                / (profile1.getNorm() * profile2.getNorm());
+    }
+
+    /**
+     * Compute the cosine similarity between two profiles of a store, read
+     * directly from the mapped file.
+     *
+     * @param store
+     * @param i index of the first profile
+     * @param j index of the second profile
+     * @return The cosine similarity in the range [0, 1]
+     * @throws NullPointerException if store is null.
+     * @throws IndexOutOfBoundsException if there is no profile i or j.
+     * @throws IllegalArgumentException if the store was built with another
+     * value of k or another hashing mode than this metric.
+     */
+    public final double similarity(
+            final ProfileStore store, final int i, final int j) {
+        checkCompatible(store);
+        Workspace workspace = Workspace.local();
+        ProfileCursor cursor1 = workspace.cursor(0, store, i);
+        ProfileCursor cursor2 = workspace.cursor(1, store, j);
+        return SortedMerge.dotProduct(cursor1, cursor2)
+                / (cursor1.norm() * cursor2.norm());
+    }
+
+    /**
+     * Compute the cosine similarity between a compact profile and a
+     * profile of a store, read directly from the mapped file.
+     *
+     * @param profile
+     * @param store
+     * @param i index of the stored profile
+     * @return The cosine similarity in the range [0, 1]
+     * @throws NullPointerException if profile or store is null.
+     * @throws IndexOutOfBoundsException if there is no profile i.
+     * @throws IllegalArgumentException if the profile or the store was
+     * built with another value of k or another hashing mode than this
+     * metric.
+     */
+    public final double similarity(
+            final ShingleProfile profile, final ProfileStore store,
+            final int i) {
+        checkCompatible(store);
+        store.checkCompatible(profile);
+        ProfileCursor cursor = Workspace.local().cursor(0, store, i);
+        return SortedMerge.dotProduct(
+                profile.keys(), profile.counts(), cursor)
+                / (SortedMerge.norm(profile.counts()) * cursor.norm());
+    }
+
+    /**
+     * Same as similarity(profile.getProfile(), store, i), but the norm of
+     * the profile is not computed again.
+     *
+     * @param profile
+     * @param store
+     * @param i index of the stored profile
+     * @return The cosine similarity in the range [0, 1]
+     * @throws NullPointerException if profile or store is null.
+     * @throws IndexOutOfBoundsException if there is no profile i.
+     * @throws IllegalArgumentException if the profile or the store was
+     * built with another value of k or another hashing mode than this
+     * metric.
+     */
+    public final double similarity(
+            final CosineProfile profile, final ProfileStore store,
+            final int i) {
+        checkCompatible(store);
+        ShingleProfile shingles = profile.getProfile();
+        store.checkCompatible(shingles);
+        ProfileCursor cursor = Workspace.local().cursor(0, store, i);
+
+        return SortedMerge.dotProduct(
+                shingles.keys(), shingles.counts(), cursor)
+                / (profile.getNorm() * cursor.norm());
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Compact profile of a string, with its L2 norm. When the same profiles are
+ * compared many times, the norms are thus computed only once, and the cosine
+ * similarity between two profiles costs only a sparse dot product.
+ *
+ * Instances are created by Cosine.getCosineProfile.
+ *
+ * @author Thibault Debatty
+ */
+@Immutable
+public final class CosineProfile {
+
+    private final ShingleProfile profile;
+    private final double norm;
+
+    /**
+     * @param profile
+     */
+    CosineProfile(final ShingleProfile profile) {
+        this.profile = profile;
+        this.norm = SortedMerge.norm(profile.counts());
+    }
+
+    /**
+     * The compact profile.
+     * @return the profile
+     */
+    public ShingleProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * The L2 norm of the profile: sqrt(Sum_i( v_i²)).
+     * @return the norm
+     */
+    public double getNorm() {
+        return norm;
+    }
+}
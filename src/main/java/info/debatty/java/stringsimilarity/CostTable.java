@@ -0,0 +1,273 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+import net.jcip.annotations.Immutable;
+
+/**
+ * Substitution, insertion and deletion costs, precomputed in dense tables.
+ *
+ * The costs of the characters of an alphabet (by default the 256 Latin-1
+ * characters) are computed once, when the table is built.
+ * Afterwards, WeightedLevenshtein reads them directly from the tables instead
+ * of calling the cost interfaces for each cell of the matrix. The costs of
+ * characters that are not part of the alphabet are still computed by the
+ * interfaces.
+ *
+ * The substitution table holds s * s doubles, where s is the size of the
+ * alphabet (512 KB for Latin-1).
+ *
+ * @author Thibault Debatty
+ */
+@Immutable
+public final class CostTable
+        implements CharacterSubstitutionInterface, CharacterInsDelInterface {
+
+    /**
+     * Characters below this value are indexed with a direct lookup table.
+     */
+    private static final int DIRECT = 256;
+
+    private final CharacterSubstitutionInterface charsub;
+    private final CharacterInsDelInterface charchange;
+
+    // index of characters < DIRECT (or -1)
+    private final int[] direct;
+
+    // index of the other characters of the alphabet (or null)
+    private final CharIndex others;
+    private final int[] other_ids;
+
+    private final int size;
+    private final double[] substitutions;
+    private final double[] insertions;
+    private final double[] deletions;
+
+    /**
+     * Compile the substitution costs of the Latin-1 characters. Insertions
+     * and deletions cost 1.
+     * @param charsub The strategy to determine character substitution weights.
+     * @throws NullPointerException if charsub is null.
+     */
+    public CostTable(final CharacterSubstitutionInterface charsub) {
+        this(charsub, null);
+    }
+
+    /**
+     * Compile the substitution, insertion and deletion costs of the Latin-1
+     * characters.
+     * @param charsub The strategy to determine character substitution weights.
+     * @param charchange The strategy to determine character insertion /
+     *                   deletion weights (null for a cost of 1).
+     * @throws NullPointerException if charsub is null.
+     */
+    public CostTable(final CharacterSubstitutionInterface charsub,
+                     final CharacterInsDelInterface charchange) {
+        this(charsub, charchange, latin1());
+    }
+
+    /**
+     * Compile the substitution, insertion and deletion costs of the
+     * characters of the given alphabet.
+     * @param charsub The strategy to determine character substitution weights.
+     * @param charchange The strategy to determine character insertion /
+     *                   deletion weights (null for a cost of 1).
+     * @param alphabet The characters to compile (duplicates are ignored).
+     * @throws NullPointerException if charsub or alphabet is null.
+     */
+    public CostTable(final CharacterSubstitutionInterface charsub,
+                     final CharacterInsDelInterface charchange,
+                     final String alphabet) {
+        if (charsub == null) {
+            throw new NullPointerException("charsub must not be null");
+        }
+
+        if (alphabet == null) {
+            throw new NullPointerException("alphabet must not be null");
+        }
+
+        this.charsub = charsub;
+        this.charchange = charchange;
+
+        // assign a dense index to each distinct character of the alphabet
+        direct = new int[DIRECT];
+        Arrays.fill(direct, -1);
+        CharIndex other_index = new CharIndex();
+        other_index.clear(alphabet.length());
+        int[] ids = new int[alphabet.length()];
+        char[] chars = new char[alphabet.length()];
+        int count = 0;
+
+        for (int i = 0; i < alphabet.length(); i++) {
+            char c = alphabet.charAt(i);
+            if (index(c, other_index, ids) >= 0) {
+                continue;
+            }
+
+            if (c < DIRECT) {
+                direct[c] = count;
+            } else {
+                ids[other_index.add(c)] = count;
+            }
+            chars[count] = c;
+            count++;
+        }
+
+        size = count;
+        if (other_index.size() == 0) {
+            others = null;
+            other_ids = null;
+        } else {
+            others = other_index;
+            other_ids = Arrays.copyOf(ids, other_index.size());
+        }
+
+        substitutions = new double[size * size];
+        insertions = new double[size];
+        deletions = new double[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                substitutions[i * size + j] = charsub.cost(chars[i], chars[j]);
+            }
+
+            insertions[i] = 1.0;
+            deletions[i] = 1.0;
+            if (charchange != null) {
+                insertions[i] = charchange.insertionCost(chars[i]);
+                deletions[i] = charchange.deletionCost(chars[i]);
+            }
+        }
+    }
+
+    /**
+     * Cost of substituting c1 by c2.
+     * @param c1 The character being replaced.
+     * @param c2 The character c1 is being replaced by.
+     * @return the cost of the substitution
+     */
+    public double cost(final char c1, final char c2) {
+        int i1 = index(c1);
+        int i2 = index(c2);
+        if (i1 < 0 || i2 < 0) {
+            return charsub.cost(c1, c2);
+        }
+        return substitutions[i1 * size + i2];
+    }
+
+    /**
+     * Cost of inserting c.
+     * @param c The character being inserted.
+     * @return the cost of the insertion
+     */
+    public double insertionCost(final char c) {
+        int i = index(c);
+        if (i >= 0) {
+            return insertions[i];
+        }
+
+        if (charchange == null) {
+            return 1.0;
+        }
+        return charchange.insertionCost(c);
+    }
+
+    /**
+     * Cost of deleting c.
+     * @param c The character being deleted.
+     * @return the cost of the deletion
+     */
+    public double deletionCost(final char c) {
+        int i = index(c);
+        if (i >= 0) {
+            return deletions[i];
+        }
+
+        if (charchange == null) {
+            return 1.0;
+        }
+        return charchange.deletionCost(c);
+    }
+
+    /**
+     * Number of characters in the table.
+     * @return the size of the alphabet
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Index of character c in the tables.
+     * @param c
+     * @return the index of c, or -1 if c is not part of the alphabet
+     */
+    int index(final char c) {
+        return index(c, others, other_ids);
+    }
+
+    /**
+     * Cost of substituting the characters with index i1 and i2.
+     * @param i1
+     * @param i2
+     * @return the cost of the substitution
+     */
+    double substitution(final int i1, final int i2) {
+        return substitutions[i1 * size + i2];
+    }
+
+    /**
+     * Insertion and deletion costs are all equal to 1 (no strategy was
+     * provided).
+     * @return true if insertion and deletion costs are uniform
+     */
+    boolean uniformInsDel() {
+        return charchange == null;
+    }
+
+    private int index(
+            final char c, final CharIndex other_index, final int[] ids) {
+        if (c < DIRECT) {
+            return direct[c];
+        }
+
+        if (other_index == null) {
+            return -1;
+        }
+
+        int id = other_index.get(c);
+        if (id < 0) {
+            return -1;
+        }
+        return ids[id];
+    }
+
+    private static String latin1() {
+        StringBuilder builder = new StringBuilder(DIRECT);
+        for (int c = 0; c < DIRECT; c++) {
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+}
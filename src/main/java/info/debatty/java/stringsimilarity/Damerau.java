@@ -24,7 +24,7 @@
 package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.interfaces.MetricStringDistance;
-import java.util.HashMap;
+import java.util.Arrays;
 
 import net.jcip.annotations.Immutable;
 
@@ -40,11 +40,31 @@ import net.jcip.annotations.Immutable;
  * This is not to be confused with the optimal string alignment distance, which
  * is an extension where no substring can be edited more than once.
  *
+ * The implementation is based on the algorithm of Lowrance and Wagner, but
+ * does not keep the full matrix. A transposition that spans a rows and b
+ * columns costs a + b + 1, and can only be cheaper than substitutions and
+ * insertions or deletions if a or b is 0. Hence only two cases have to be
+ * considered: transpositions between adjacent rows, which read row i - 2,
+ * and transpositions between adjacent columns, which read a single cell per
+ * column (the cell of the row preceding the last occurrence of the column
+ * character, which is saved when this row is processed). The memory is
+ * thus O(s + min(m, n)) where s is the number of distinct characters,
+ * instead of O(m * n).
+ *
  * @author Thibault Debatty
  */
 @Immutable
 public class Damerau implements MetricStringDistance {
 
+    // int buffers of the workspace
+    private static final int ROWS = 0;
+    private static final int DA = 1;
+    private static final int SAVED = 2;
+    private static final int COL_IDS = 3;
+
+    // rows i - 2, i - 1 and i of the matrix
+    private static final int ROW_COUNT = 3;
+
     /**
      * Compute the distance between strings: the minimum number of operations
      * needed to transform one string into the other (insertion, deletion,
@@ -56,6 +76,20 @@ public class Damerau implements MetricStringDistance {
      * @throws NullPointerException if s1 or s2 is null.
      */
     public final double distance(final String s1, final String s2) {
+        return distance(s1, s2, Workspace.local());
+    }
+
+    /**
+     * Same as distance(s1, s2), but using the provided workspace instead of
+     * the default workspace of the current thread.
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param workspace The scratch buffers to use for the computation.
+     * @return The computed distance.
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public final double distance(final String s1, final String s2,
+                                 final Workspace workspace) {
 
         if (s1 == null) {
             throw new NullPointerException("s1 must not be null");
@@ -69,67 +103,115 @@ public class Damerau implements MetricStringDistance {
             return 0;
         }
 
-        // INFinite distance is the max possible distance
-        int inf = s1.length() + s2.length();
+        // an optimal alignment matches the common prefix and suffix of the
+        // strings, so only the middle part has to be processed
+        int prefix = Affixes.prefix(s1, s2);
+        int suffix = Affixes.suffix(s1, s2, prefix);
+        int n = s1.length() - prefix - suffix;
+        int m = s2.length() - prefix - suffix;
 
-        // Create and initialize the character array indices
-        HashMap<Character, Integer> da = new HashMap<Character, Integer>();
-
-        for (int d = 0; d < s1.length(); d++) {
-            da.put(s1.charAt(d), 0);
+        if (n == 0) {
+            return m;
         }
 
-        for (int d = 0; d < s2.length(); d++) {
-            da.put(s2.charAt(d), 0);
+        if (m == 0) {
+            return n;
         }
 
-        // Create the distance matrix H[0 .. s1.length+1][0 .. s2.length+1]
-        int[][] h = new int[s1.length() + 2][s2.length() + 2];
-
-        // initialize the left and top edges of H
-        for (int i = 0; i <= s1.length(); i++) {
-            h[i + 1][0] = inf;
-            h[i + 1][1] = i;
+        // the distance is symmetric: use the shortest string for the
+        // columns of the matrix
+        String rows = s1;
+        String cols = s2;
+        if (n < m) {
+            rows = s2;
+            cols = s1;
+            int tmp = n;
+            n = m;
+            m = tmp;
         }
 
-        for (int j = 0; j <= s2.length(); j++) {
-            h[0][j + 1] = inf;
-            h[1][j + 1] = j;
-
+        // index the characters of the columns, and keep the index of each
+        // column character
+        CharIndex chars = workspace.charIndex(m);
+        int[] col_ids = workspace.ints(COL_IDS, m + 1);
+        for (int j = 1; j <= m; j++) {
+            col_ids[j] = chars.add(cols.charAt(prefix + j - 1));
+        }
+        int sigma = chars.size();
+
+        // da[c] : last row i such that rows[i - 1] == c (or 0)
+        int[] da = workspace.ints(DA, sigma);
+        Arrays.fill(da, 0, sigma, 0);
+
+        // saved[j] : D[da[c] - 1][j - 2] where c == cols[j - 1], for the
+        // transpositions between adjacent columns
+        int[] saved = workspace.ints(SAVED, m + 1);
+
+        int w = m + 1;
+        int[] d = workspace.ints(ROWS, ROW_COUNT * w);
+        int before = 2 * w;
+        int previous = 0;
+        int current = w;
+        for (int j = 0; j <= m; j++) {
+            d[j] = j;
         }
 
-        // fill in the distance matrix H
-        // look at each character in s1
-        for (int i = 1; i <= s1.length(); i++) {
+        for (int i = 1; i <= n; i++) {
+            char c1 = rows.charAt(prefix + i - 1);
             int db = 0;
+            d[current] = i;
 
-            // look at each character in b
-            for (int j = 1; j <= s2.length(); j++) {
-                int i1 = da.get(s2.charAt(j - 1));
+            for (int j = 1; j <= m; j++) {
+                int id2 = col_ids[j];
+                int i1 = da[id2];
                 int j1 = db;
 
                 int cost = 1;
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
+                if (c1 == cols.charAt(prefix + j - 1)) {
                     cost = 0;
                     db = j;
                 }
 
-                h[i + 1][j + 1] = min(
-                        h[i][j] + cost, // substitution
-                        h[i + 1][j] + 1, // insertion
-                        h[i][j + 1] + 1, // deletion
-                        h[i1][j1] + (i - i1 - 1) + 1 + (j - j1 - 1));
+                int value = min(
+                        d[previous + j - 1] + cost, // substitution
+                        d[current + j - 1] + 1, // insertion
+                        d[previous + j] + 1); // deletion
+
+                // transposition, from D[i1 - 1][j1 - 1]
+                if (i1 > 0 && j1 > 0) {
+                    if (i1 == i - 1) {
+                        value = Math.min(value,
+                                d[before + j1 - 1] + 1 + (j - j1 - 1));
+                    } else if (j1 == j - 1) {
+                        value = Math.min(value,
+                                saved[j] + (i - i1 - 1) + 1);
+                    }
+                }
+
+                if (cost == 0 && j > 1) {
+                    // D[i - 1][j - 2], for the next occurrences of c1 in
+                    // rows
+                    saved[j] = d[previous + j - 2];
+                }
+
+                d[current + j] = value;
             }
 
-            da.put(s1.charAt(i - 1), i);
+            int id1 = chars.get(c1);
+            if (id1 >= 0) {
+                da[id1] = i;
+            }
+
+            int tmp = before;
+            before = previous;
+            previous = current;
+            current = tmp;
         }
 
-        return h[s1.length() + 1][s2.length() + 1];
+        return d[previous + m];
     }
 
-    private static int min(
-            final int a, final int b, final int c, final int d) {
-        return Math.min(a, Math.min(b, Math.min(c, d)));
+    private static int min(final int a, final int b, final int c) {
+        return Math.min(a, Math.min(b, c));
     }
-
 }
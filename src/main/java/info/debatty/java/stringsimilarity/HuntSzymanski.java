@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+
+/**
+ * Length of the longest common subsequence, computed with the algorithm of
+ * Hunt and Szymanski "A fast algorithm for computing longest common
+ * subsequences" (1977).
+ *
+ * The algorithm only visits the r matching pairs (i, j) such that
+ * s1[i] == s2[j], and keeps for each length k the smallest position in s2
+ * where a common subsequence of length k can end. The cost is thus
+ * O((r + n) log(m) + m), which is much faster than the O(n * m) algorithms
+ * when the strings have few characters in common.
+ *
+ * @author Thibault Debatty
+ */
+final class HuntSzymanski {
+
+    // int buffers of the workspace
+    private static final int BOUNDS = 0;
+    private static final int POSITIONS = 1;
+    private static final int THRESHOLDS = 2;
+
+    private HuntSzymanski() {
+    }
+
+    /**
+     * Number of matching pairs above which Hunt-Szymanski is expected to be
+     * slower than the bit-parallel algorithm, for a text of length n and a
+     * pattern of length m.
+     * @param n
+     * @param m
+     * @return the maximum number of matching pairs
+     */
+    static long maxPairs(final int n, final int m) {
+        // bit-parallel: one operation per word of the pattern and character
+        // of the text
+        // Hunt-Szymanski: one binary search per matching pair
+        long words = (m + Long.SIZE - 1) / Long.SIZE;
+        int log = Integer.SIZE - Integer.numberOfLeadingZeros(m);
+        return words * n / log;
+    }
+
+    /**
+     * Compute the length of the LCS between s1[offset, offset + n) and
+     * s2[offset, offset + m), if the number of matching pairs is at most
+     * max_pairs.
+     * @param s1
+     * @param s2
+     * @param offset
+     * @param n
+     * @param m
+     * @param max_pairs
+     * @param workspace
+     * @return the length of the LCS, or -1 if there are more than max_pairs
+     * matching pairs
+     */
+    static int length(
+            final String s1,
+            final String s2,
+            final int offset,
+            final int n,
+            final int m,
+            final long max_pairs,
+            final Workspace workspace) {
+
+        // count the occurrences of each character of s2
+        CharIndex chars = workspace.charIndex(m);
+        int[] bounds = workspace.ints(BOUNDS, m + 2);
+        Arrays.fill(bounds, 0, m + 2, 0);
+        for (int j = 0; j < m; j++) {
+            bounds[chars.add(s2.charAt(offset + j)) + 1]++;
+        }
+        int sigma = chars.size();
+
+        // number of matching pairs
+        long pairs = 0;
+        for (int i = 0; i < n; i++) {
+            int id = chars.get(s1.charAt(offset + i));
+            if (id >= 0) {
+                pairs += bounds[id + 1];
+            }
+        }
+
+        if (pairs > max_pairs) {
+            return -1;
+        }
+
+        if (pairs == 0) {
+            return 0;
+        }
+
+        // positions of each character of s2, in increasing order:
+        // character id occurs at positions[bounds[id + 1] .. bounds[id + 2])
+        for (int id = 1; id <= sigma; id++) {
+            bounds[id] += bounds[id - 1];
+        }
+
+        int[] positions = workspace.ints(POSITIONS, m);
+        for (int j = m - 1; j >= 0; j--) {
+            int id = chars.get(s2.charAt(offset + j));
+            bounds[id + 1]--;
+            positions[bounds[id + 1]] = j;
+        }
+        bounds[sigma + 1] = m;
+
+        // thresholds[k] : smallest position in s2 where a common
+        // subsequence of length k + 1 ends (strictly increasing)
+        int[] thresholds = workspace.ints(THRESHOLDS, Math.min(n, m));
+        int length = 0;
+
+        for (int i = 0; i < n; i++) {
+            int id = chars.get(s1.charAt(offset + i));
+            if (id < 0) {
+                continue;
+            }
+
+            // decreasing positions, so that a row extends each length at
+            // most once
+            for (int p = bounds[id + 2] - 1; p >= bounds[id + 1]; p--) {
+                int j = positions[p];
+
+                // first k such that thresholds[k] >= j
+                int low = 0;
+                int high = length;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (thresholds[mid] < j) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+
+                thresholds[low] = j;
+                if (low == length) {
+                    length++;
+                }
+            }
+        }
+
+        return length;
+    }
+}
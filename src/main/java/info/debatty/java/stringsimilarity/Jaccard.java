@@ -27,9 +27,6 @@ package info.debatty.java.stringsimilarity;
 import info.debatty.java.stringsimilarity.interfaces.MetricStringDistance;
 import info.debatty.java.stringsimilarity.interfaces.NormalizedStringSimilarity;
 import info.debatty.java.stringsimilarity.interfaces.NormalizedStringDistance;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 
 import net.jcip.annotations.Immutable;
 
@@ -59,6 +56,30 @@ public class Jaccard extends ShingleBased implements
         super(k);
     }
 
+    /**
+     * Same as Jaccard(k), with the given hashing mode for the compact
+     * profiles (see ShingleHashing).
+     *
+     * @param k
+     * @param hashing
+     */
+    public Jaccard(final int k, final ShingleHashing hashing) {
+        super(k, hashing);
+    }
+
+    /**
+     * Same as Jaccard(k, hashing), with a cache of the compact profiles
+     * of the strings (see ProfileCache).
+     *
+     * @param k
+     * @param hashing
+     * @param cache
+     */
+    public Jaccard(final int k, final ShingleHashing hashing,
+            final ProfileCache cache) {
+        super(k, hashing, cache);
+    }
+
     /**
      * The strings are first transformed into sets of k-shingles (sequences of k
      * characters), then Jaccard index is computed as |A inter B| / |A union B|.
@@ -88,18 +109,30 @@ public class Jaccard extends ShingleBased implements
             return 1;
         }
 
-        Map<String, Integer> profile1 = getProfile(s1);
-        Map<String, Integer> profile2 = getProfile(s2);
-
+        Workspace workspace = Workspace.local();
+        return similarity(getShingleProfile(s1, workspace),
+                getShingleProfile(s2, workspace));
+    }
 
-        Set<String> union = new HashSet<String>();
-        union.addAll(profile1.keySet());
-        union.addAll(profile2.keySet());
+    /**
+     * Compute Jaccard index between precomputed compact profiles.
+     * @param profile1
+     * @param profile2
+     * @return The Jaccard index in the range [0, 1]
+     * @throws NullPointerException if profile1 or profile2 is null.
+     * @throws IllegalArgumentException if the profiles were built with
+     * different values of k.
+     */
+    public final double similarity(
+            final ShingleProfile profile1,
+            final ShingleProfile profile2) {
+        profile1.checkCompatible(profile2);
 
-        int inter = profile1.keySet().size() + profile2.keySet().size()
-                - union.size();
+        int inter = SortedMerge.intersection(
+                profile1.keys(), profile2.keys());
+        int union = profile1.size() + profile2.size() - inter;
 
-        return 1.0 * inter / union.size();
+        return 1.0 * inter / union;
     }
 
 
@@ -113,4 +146,75 @@ public class Jaccard extends ShingleBased implements
     public final double distance(final String s1, final String s2) {
         return 1.0 - similarity(s1, s2);
     }
+
+    /**
+     * Compute Jaccard index between sparse vectors of the same vocabulary.
+     * @param vector1
+     * @param vector2
+     * @return The Jaccard index in the range [0, 1]
+     * @throws NullPointerException if vector1 or vector2 is null.
+     * @throws IllegalArgumentException if the vectors come from different
+     * vocabularies.
+     */
+    public final double similarity(
+            final ShingleVector vector1,
+            final ShingleVector vector2) {
+        vector1.checkCompatible(vector2);
+
+        int inter = SortedMerge.intersection(vector1.ids(), vector2.ids());
+        int union = vector1.size() + vector2.size() - inter;
+
+        return 1.0 * inter / union;
+    }
+
+    /**
+     * Compute Jaccard index between two profiles of a store, read directly
+     * from the mapped file.
+     *
+     * @param store
+     * @param i index of the first profile
+     * @param j index of the second profile
+     * @return The Jaccard index in the range [0, 1]
+     * @throws NullPointerException if store is null.
+     * @throws IndexOutOfBoundsException if there is no profile i or j.
+     * @throws IllegalArgumentException if the store was built with another
+     * value of k or another hashing mode than this metric.
+     */
+    public final double similarity(
+            final ProfileStore store, final int i, final int j) {
+        checkCompatible(store);
+        Workspace workspace = Workspace.local();
+        ProfileCursor cursor1 = workspace.cursor(0, store, i);
+        ProfileCursor cursor2 = workspace.cursor(1, store, j);
+        int inter = SortedMerge.intersection(cursor1, cursor2);
+        int union = cursor1.size() + cursor2.size() - inter;
+
+        return 1.0 * inter / union;
+    }
+
+    /**
+     * Compute Jaccard index between a compact profile and a profile of a
+     * store, read directly from the mapped file.
+     *
+     * @param profile
+     * @param store
+     * @param i index of the stored profile
+     * @return The Jaccard index in the range [0, 1]
+     * @throws NullPointerException if profile or store is null.
+     * @throws IndexOutOfBoundsException if there is no profile i.
+     * @throws IllegalArgumentException if the profile or the store was
+     * built with another value of k or another hashing mode than this
+     * metric.
+     */
+    public final double similarity(
+            final ShingleProfile profile, final ProfileStore store,
+            final int i) {
+        checkCompatible(store);
+        store.checkCompatible(profile);
+        ProfileCursor cursor = Workspace.local().cursor(0, store, i);
+        int inter = SortedMerge.intersection(profile.keys(), cursor);
+        int union = profile.size() + cursor.size() - inter;
+
+        return 1.0 * inter / union;
+    }
 }
@@ -15,6 +15,12 @@ import net.jcip.annotations.Immutable;
  * Jaro-Winkler was developed in the area of record linkage (duplicate
  * detection) (Winkler, 1990). It returns a value in the interval [0.0, 1.0].
  * The distance is computed as 1 - Jaro-Winkler similarity.
+ *
+ * The characters are matched using the bit-parallel algorithm described in
+ * BitParallelJaro, with the match masks of the longest string. The matched
+ * characters are recorded in bitsets taken from a workspace, and the
+ * transpositions are counted by walking the bitsets, so the computation does
+ * not allocate memory.
  * @author Thibault Debatty
  */
 @Immutable
@@ -62,6 +68,20 @@ public class JaroWinkler
      * @throws NullPointerException if s1 or s2 is null.
      */
     public final double similarity(final String s1, final String s2) {
+        return similarity(s1, s2, Workspace.local());
+    }
+
+    /**
+     * Same as similarity(s1, s2), but using the provided workspace instead
+     * of the default workspace of the current thread.
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param workspace The scratch buffers to use for the computation.
+     * @return The Jaro-Winkler similarity in the range [0, 1]
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public final double similarity(final String s1, final String s2,
+                                   final Workspace workspace) {
         if (s1 == null) {
             throw new NullPointerException("s1 must not be null");
         }
@@ -70,23 +90,99 @@ public class JaroWinkler
             throw new NullPointerException("s2 must not be null");
         }
 
-        if (s1.equals(s2)) {
-            return 1;
+        return similarity(s1, s2, null, 0, workspace);
+    }
+
+    /**
+     * Compute Jaro-Winkler similarity, but stop as soon as it is known to be
+     * smaller than min_similarity.
+     *
+     * An upper bound of the similarity is first computed from the length of
+     * the strings and their common prefix (assuming all characters of the
+     * shortest string match, without transposition). During the matching,
+     * each character of the shortest string that finds no match lowers the
+     * bound, and the computation stops when it drops below min_similarity.
+     *
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param min_similarity The minimum similarity of interest.
+     * @return The Jaro-Winkler similarity, or 0 if the similarity is smaller
+     * than min_similarity.
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public final double similarity(final String s1, final String s2,
+                                   final double min_similarity) {
+        if (s1 == null) {
+            throw new NullPointerException("s1 must not be null");
         }
 
-        int[] mtp = matches(s1, s2);
-        float m = mtp[0];
-        if (m == 0) {
-            return 0f;
+        if (s2 == null) {
+            throw new NullPointerException("s2 must not be null");
         }
-        double j = ((m / s1.length() + m / s2.length() + (m - mtp[1]) / m))
-                / THREE;
-        double jw = j;
 
-        if (j > getThreshold()) {
-            jw = j + Math.min(JW_COEF, 1.0 / mtp[THREE]) * mtp[2] * (1 - j);
+        return similarity(s1, s2, null, min_similarity, Workspace.local());
+    }
+
+    /**
+     * Compile a query string, to compute its similarity with a lot of other
+     * strings using similarity(CompiledPattern, String).
+     *
+     * @param query The string to compile.
+     * @return The compiled query.
+     * @throws NullPointerException if query is null.
+     */
+    public final CompiledPattern compile(final String query) {
+        return new CompiledPattern(query);
+    }
+
+    /**
+     * Compute the Jaro-Winkler similarity between a compiled query and a
+     * string. The result is the same as similarity(query.getPattern(), s),
+     * but when the query is the longest string its match masks are computed
+     * only once.
+     *
+     * @param query The compiled query, as returned by compile(String).
+     * @param s The string to compare.
+     * @return The Jaro-Winkler similarity in the range [0, 1]
+     * @throws NullPointerException if query or s is null.
+     */
+    public final double similarity(final CompiledPattern query,
+                                   final String s) {
+        if (query == null) {
+            throw new NullPointerException("query must not be null");
         }
-        return jw;
+
+        if (s == null) {
+            throw new NullPointerException("s must not be null");
+        }
+
+        return similarity(query, s, 0);
+    }
+
+    /**
+     * Same as similarity(query.getPattern(), s, min_similarity), but when the
+     * query is the longest string its match masks are computed only once.
+     *
+     * @param query The compiled query, as returned by compile(String).
+     * @param s The string to compare.
+     * @param min_similarity The minimum similarity of interest.
+     * @return The Jaro-Winkler similarity, or 0 if the similarity is smaller
+     * than min_similarity.
+     * @throws NullPointerException if query or s is null.
+     */
+    public final double similarity(final CompiledPattern query,
+                                   final String s,
+                                   final double min_similarity) {
+        if (query == null) {
+            throw new NullPointerException("query must not be null");
+        }
+
+        if (s == null) {
+            throw new NullPointerException("s must not be null");
+        }
+
+        return similarity(query.getPattern(), s, query, min_similarity,
+                Workspace.local());
     }
 
 
@@ -101,62 +197,151 @@ public class JaroWinkler
         return 1.0 - similarity(s1, s2);
     }
 
-    private int[] matches(final String s1, final String s2) {
+    /**
+     * @param s1
+     * @param s2
+     * @param pattern compiled version of s1 (or null)
+     * @param min_similarity
+     * @param workspace
+     */
+    private double similarity(final String s1, final String s2,
+                              final CompiledPattern pattern,
+                              final double min_similarity,
+                              final Workspace workspace) {
+        if (s1.equals(s2)) {
+            return 1;
+        }
+
         String max, min;
+        CompiledPattern max_pattern = null;
         if (s1.length() > s2.length()) {
             max = s1;
             min = s2;
+            max_pattern = pattern;
         } else {
             max = s2;
             min = s1;
         }
-        int range = Math.max(max.length() / 2 - 1, 0);
-        int[] match_indexes = new int[min.length()];
-        Arrays.fill(match_indexes, -1);
-        boolean[] match_flags = new boolean[max.length()];
-        int matches = 0;
+
+        int prefix = 0;
         for (int mi = 0; mi < min.length(); mi++) {
-            char c1 = min.charAt(mi);
-            for (int xi = Math.max(mi - range, 0),
-                    xn = Math.min(mi + range + 1, max.length());
-                    xi < xn;
-                    xi++) {
-                if (!match_flags[xi] && c1 == max.charAt(xi)) {
-                    match_indexes[mi] = xi;
-                    match_flags[xi] = true;
-                    matches++;
-                    break;
-                }
+            if (s1.charAt(mi) == s2.charAt(mi)) {
+                prefix++;
+            } else {
+                break;
             }
         }
-        char[] ms1 = new char[matches];
-        char[] ms2 = new char[matches];
-        for (int i = 0, si = 0; i < min.length(); i++) {
-            if (match_indexes[i] != -1) {
-                ms1[si] = min.charAt(i);
-                si++;
+
+        // the similarity grows with the number of matches: find how many
+        // characters of min may remain unmatched
+        int min_matches = 0;
+        if (min_similarity > 0) {
+            min_matches = min.length() + 1;
+            while (min_matches > 1 && jaroWinkler(min_matches - 1, 0,
+                    s1.length(), s2.length(), prefix) >= min_similarity) {
+                min_matches--;
             }
-        }
-        for (int i = 0, si = 0; i < max.length(); i++) {
-            if (match_flags[i]) {
-                ms2[si] = max.charAt(i);
-                si++;
+
+            if (min_matches > min.length()) {
+                // even if all characters match
+                return 0;
             }
         }
-        int transpositions = 0;
-        for (int mi = 0; mi < ms1.length; mi++) {
-            if (ms1[mi] != ms2[mi]) {
-                transpositions++;
-            }
+
+        // match flags of the characters of min and max
+        long[] min_flags = flags(workspace, 0, min.length());
+        long[] max_flags = flags(workspace, 1, max.length());
+
+        // match masks of the characters of max
+        if (max_pattern == null) {
+            max_pattern = workspace.pattern(max, 0, max.length());
         }
-        int prefix = 0;
-        for (int mi = 0; mi < min.length(); mi++) {
-            if (s1.charAt(mi) == s2.charAt(mi)) {
-                prefix++;
-            } else {
-                break;
+
+        int matches = BitParallelJaro.matches(min, max_pattern,
+                min.length() - min_matches, min_flags, max_flags);
+        if (matches <= 0) {
+            return 0f;
+        }
+
+        int transpositions =
+                transpositions(min, max, min_flags, max_flags) / 2;
+
+        double jw = jaroWinkler(
+                matches, transpositions, s1.length(), s2.length(), prefix);
+        if (jw < min_similarity) {
+            return 0;
+        }
+        return jw;
+    }
+
+    /**
+     * Jaro-Winkler similarity, from the number of matches, the number of
+     * transpositions, the length of the strings and the common prefix. It
+     * never decreases when matches increases, or when transpositions
+     * decreases.
+     */
+    private double jaroWinkler(final int matches, final int transpositions,
+                               final int length1, final int length2,
+                               final int prefix) {
+        float m = matches;
+        double j = ((m / length1 + m / length2
+                + (m - transpositions) / m))
+                / THREE;
+        double jw = j;
+
+        if (j > getThreshold()) {
+            jw = j + Math.min(JW_COEF, 1.0 / Math.max(length1, length2))
+                    * prefix * (1 - j);
+        }
+        return jw;
+    }
+
+    /**
+     * Get buffer i of the workspace, with all flags of a string of the given
+     * length cleared.
+     */
+    private static long[] flags(final Workspace workspace, final int i,
+                                final int length) {
+        int words = (length + Long.SIZE - 1) / Long.SIZE;
+        long[] flags = workspace.longs(i, words);
+        Arrays.fill(flags, 0, words, 0L);
+        return flags;
+    }
+
+    /**
+     * Walk the matched characters of min and max in parallel, and count the
+     * positions where they differ.
+     *
+     * @return the number of half-transpositions
+     */
+    private static int transpositions(final String min, final String max,
+                                      final long[] min_flags,
+                                      final long[] max_flags) {
+        int transpositions = 0;
+        int max_word = 0;
+        long max_bits = max_flags[0];
+        int min_words = (min.length() + Long.SIZE - 1) / Long.SIZE;
+
+        for (int min_word = 0; min_word < min_words; min_word++) {
+            long min_bits = min_flags[min_word];
+            while (min_bits != 0) {
+                int mi = min_word * Long.SIZE
+                        + Long.numberOfTrailingZeros(min_bits);
+                min_bits &= min_bits - 1;
+
+                while (max_bits == 0) {
+                    max_word++;
+                    max_bits = max_flags[max_word];
+                }
+                int xi = max_word * Long.SIZE
+                        + Long.numberOfTrailingZeros(max_bits);
+                max_bits &= max_bits - 1;
+
+                if (min.charAt(mi) != max.charAt(xi)) {
+                    transpositions++;
+                }
             }
         }
-        return new int[]{matches, transpositions / 2, prefix, max.length()};
+        return transpositions;
     }
 }
@@ -36,9 +36,15 @@ public class Levenshtein implements MetricStringDistance {
      * between two strings is no greater than the sum Levenshtein distances from
      * a third string).
      *
-     * Implementation uses dynamic programming (Wagner–Fischer algorithm), with
-     * only 2 rows of data. The space requirement is thus O(m) and the algorithm
-     * runs in O(mn).
+     * The implementation uses the bit-parallel algorithm of Myers (1999),
+     * which runs in O(ceil(m / 64) . n), where m is the length of the
+     * shortest string. When a limit k is given and the shortest string does
+     * not fit in a single word, the implementation uses the diagonal band
+     * algorithm of Ukkonen ("Algorithms for approximate string matching",
+     * 1985): only the cells at most k diagonals away from the main
+     * diagonal are computed, which runs in O(k.n) and requires O(m) space.
+     * In both cases, the common prefix and suffix of the strings are
+     * skipped before running the algorithm.
      *
      * @param s1 The first string to compare.
      * @param s2 The second string to compare.
@@ -47,11 +53,29 @@ public class Levenshtein implements MetricStringDistance {
      *              only care about strings with a certain similarity.
      *              Set this to Integer.MAX_VALUE if you want to run the
      *              calculation to completion in every case.
-     * @return The computed Levenshtein distance.
+     * @return The computed Levenshtein distance, or limit if the distance is
+     *              at least limit.
      * @throws NullPointerException if s1 or s2 is null.
      */
     public final double distance(final String s1, final String s2,
                                  final int limit) {
+        return distance(s1, s2, limit, Workspace.local());
+    }
+
+    /**
+     * Same as distance(s1, s2, limit), but using the provided workspace
+     * instead of the default workspace of the current thread.
+     *
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param limit The maximum result to compute before stopping.
+     * @param workspace The scratch buffers to use for the computation.
+     * @return The computed Levenshtein distance, or limit if the distance is
+     *              at least limit.
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public final double distance(final String s1, final String s2,
+                                 final int limit, final Workspace workspace) {
         if (s1 == null) {
             throw new NullPointerException("s1 must not be null");
         }
@@ -64,6 +88,12 @@ public class Levenshtein implements MetricStringDistance {
             return 0;
         }
 
+        // the distance is at least the difference of lengths (and is
+        // exactly the length of the other string if one string is empty)
+        if (Math.abs(s1.length() - s2.length()) >= limit) {
+            return limit;
+        }
+
         if (s1.length() == 0) {
             return s2.length();
         }
@@ -72,55 +102,164 @@ public class Levenshtein implements MetricStringDistance {
             return s1.length();
         }
 
-        // create two work vectors of integer distances
-        int[] v0 = new int[s2.length() + 1];
-        int[] v1 = new int[s2.length() + 1];
+        // an optimal alignment matches the common prefix and suffix: only
+        // the middle part of the strings has to be processed
+        int prefix = Affixes.prefix(s1, s2);
+        int suffix = Affixes.suffix(s1, s2, prefix);
+
+        // the algorithms are symmetric: work with the shortest string as
+        // pattern (or rows)
+        String shortest = s1;
+        String longest = s2;
+        if (s1.length() > s2.length()) {
+            shortest = s2;
+            longest = s1;
+        }
+
+        int n = shortest.length() - prefix - suffix;
+        int m = longest.length() - prefix - suffix;
+
+        if (n == 0) {
+            return Math.min(m, limit);
+        }
+
+        if (limit >= m || n <= Long.SIZE) {
+            // the limit cannot be reached, or the bit-parallel algorithm is
+            // anyway faster than the band
+            int distance = BitParallelLevenshtein.distance(
+                    workspace.pattern(shortest, prefix, prefix + n),
+                    longest, prefix, prefix + m, workspace);
+            return Math.min(distance, limit);
+        }
+
+        return band(shortest, longest, prefix, n, m, limit, workspace);
+    }
+
+    /**
+     * Banded dynamic programming (Ukkonen).
+     *
+     * A path that goes through cell (i, j) costs at least
+     * |j - i| + |(m - j) - (n - i)|. Hence if we are only interested in
+     * distances smaller than limit, we only have to compute the cells where
+     * this bound is &lt; limit. The other cells are considered infinite (i.e.
+     * &gt;= limit).
+     *
+     * @param s1 the shortest string
+     * @param s2 the longest string
+     * @param offset index of the first character to process (in both strings)
+     * @param n number of characters to process in s1
+     * @param m number of characters to process in s2
+     * @param limit
+     * @param workspace
+     * @return the distance, or limit if the distance is &gt;= limit
+     */
+    private static int band(final String s1, final String s2,
+                            final int offset, final int n, final int m,
+                            final int limit, final Workspace workspace) {
+
+        int diff = m - n;
+
+        // we need the exact distance only if it is <= k
+        int k = limit - 1;
+
+        // cells (i, j) with i - lo <= j <= i + diff + lo
+        int lo = (k - diff) / 2;
+        int hi = diff + lo;
+
+        int[] v0 = workspace.ints(0, m + 1);
+        int[] v1 = workspace.ints(1, m + 1);
         int[] vtemp;
 
-        // initialize v0 (the previous row of distances)
-        // this row is A[0][i]: edit distance for an empty s
-        // the distance is just the number of characters to delete from t
-        for (int i = 0; i < v0.length; i++) {
-            v0[i] = i;
+        // first row: A[0][j] = j
+        int end = Math.min(m, hi);
+        for (int j = 0; j <= end; j++) {
+            v0[j] = j;
+        }
+        if (end < m) {
+            v0[end + 1] = limit;
         }
 
-        for (int i = 0; i < s1.length(); i++) {
-            // calculate v1 (current row distances) from the previous row v0
-            // first element of v1 is A[i+1][0]
-            //   edit distance is delete (i+1) chars from s to match empty t
-            v1[0] = i + 1;
+        for (int i = 1; i <= n; i++) {
+            int start = Math.max(1, i - lo);
+            end = Math.min(m, i + hi);
 
-            int minv1 = v1[0];
+            if (start == 1) {
+                v1[0] = i;
+            } else {
+                v1[start - 1] = limit;
+            }
 
-            // use formula to fill in the rest of the row
-            for (int j = 0; j < s2.length(); j++) {
+            int minv1 = limit;
+            char s1i = s1.charAt(offset + i - 1);
+
+            for (int j = start; j <= end; j++) {
                 int cost = 1;
-                if (s1.charAt(i) == s2.charAt(j)) {
+                if (s1i == s2.charAt(offset + j - 1)) {
                     cost = 0;
                 }
-                v1[j + 1] = Math.min(
-                        v1[j] + 1,              // Cost of insertion
+                int value = Math.min(
+                        v1[j - 1] + 1,          // Cost of insertion
                         Math.min(
-                                v0[j + 1] + 1,  // Cost of remove
-                                v0[j] + cost)); // Cost of substitution
+                                v0[j] + 1,      // Cost of remove
+                                v0[j - 1] + cost)); // Cost of substitution
+
+                // everything >= limit is "infinite"
+                v1[j] = Math.min(value, limit);
+                minv1 = Math.min(minv1, value);
+            }
 
-                minv1 = Math.min(minv1, v1[j + 1]);
+            if (end < m) {
+                v1[end + 1] = limit;
             }
 
+            // every path with a cost < limit goes through the band
             if (minv1 >= limit) {
                 return limit;
             }
 
-            // copy v1 (current row) to v0 (previous row) for next iteration
-            //System.arraycopy(v1, 0, v0, 0, v0.length);
-
             // Flip references to current and previous row
             vtemp = v0;
             v0 = v1;
             v1 = vtemp;
+        }
+
+        return Math.min(v0[m], limit);
+    }
+
+    /**
+     * Compile a string, so it can be efficiently compared to many other
+     * strings using distance(CompiledPattern, String).
+     *
+     * @param pattern The string to compile.
+     * @return The compiled pattern.
+     * @throws NullPointerException if pattern is null.
+     */
+    public final CompiledPattern compile(final String pattern) {
+        return new CompiledPattern(pattern);
+    }
+
+    /**
+     * Compute the Levenshtein distance between a compiled pattern and a
+     * string, using the bit-parallel algorithm of Myers (1999). The result is
+     * the same as distance(pattern.getPattern(), s), but the match masks of
+     * the pattern are computed only once.
+     *
+     * @param pattern The compiled pattern, as returned by compile(String).
+     * @param s The string to compare.
+     * @return The computed Levenshtein distance.
+     * @throws NullPointerException if pattern or s is null.
+     */
+    public final double distance(final CompiledPattern pattern,
+                                 final String s) {
+        if (pattern == null) {
+            throw new NullPointerException("pattern must not be null");
+        }
 
+        if (s == null) {
+            throw new NullPointerException("s must not be null");
         }
 
-        return v0[s2.length()];
+        return BitParallelLevenshtein.distance(
+                pattern, s, 0, s.length(), Workspace.local());
     }
 }
@@ -18,8 +18,14 @@ import net.jcip.annotations.Immutable;
  * deletion is allowed (no substitution), or when the cost of the substitution
  * is the double of the cost of an insertion or deletion.
  *
- * ! This class currently implements the dynamic programming approach, which has
- * a space requirement O(m * n)!
+ * This class implements the bit-parallel algorithm of Allison and Dix
+ * (1986) / Hyyrö (2004), which runs in O(ceil(m / 64) * n), where m is the
+ * length of the shortest string, and requires O(m / 64) space. When the
+ * strings have few matching pairs of characters (for example long strings
+ * over a large alphabet), the algorithm of Hunt and Szymanski (1977) is used
+ * instead, which runs in O(r log(m)) where r is the number of matching
+ * pairs. The common prefix and suffix of the strings are skipped before
+ * running the algorithm.
  *
  * @author Thibault Debatty
  */
@@ -37,6 +43,21 @@ public class LongestCommonSubsequence implements StringDistance {
      * @throws NullPointerException if s1 or s2 is null.
      */
     public final double distance(final String s1, final String s2) {
+        return distance(s1, s2, Workspace.local());
+    }
+
+    /**
+     * Same as distance(s1, s2), but using the provided workspace instead of
+     * the default workspace of the current thread.
+     *
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param workspace The scratch buffers to use for the computation.
+     * @return the LCS distance between strings s1 and s2
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public final double distance(final String s1, final String s2,
+                                 final Workspace workspace) {
         if (s1 == null) {
             throw new NullPointerException("s1 must not be null");
         }
@@ -49,7 +70,7 @@ public class LongestCommonSubsequence implements StringDistance {
             return 0;
         }
 
-        return s1.length() + s2.length() - 2 * length(s1, s2);
+        return s1.length() + s2.length() - 2 * length(s1, s2, workspace);
     }
 
     /**
@@ -62,6 +83,21 @@ public class LongestCommonSubsequence implements StringDistance {
      * @throws NullPointerException if s1 or s2 is null.
      */
     public final int length(final String s1, final String s2) {
+        return length(s1, s2, Workspace.local());
+    }
+
+    /**
+     * Same as length(s1, s2), but using the provided workspace instead of
+     * the default workspace of the current thread.
+     *
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param workspace The scratch buffers to use for the computation.
+     * @return the length of LCS(s1, s2)
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public final int length(final String s1, final String s2,
+                            final Workspace workspace) {
         if (s1 == null) {
             throw new NullPointerException("s1 must not be null");
         }
@@ -70,41 +106,36 @@ public class LongestCommonSubsequence implements StringDistance {
             throw new NullPointerException("s2 must not be null");
         }
 
-        /* function LCSLength(X[1..m], Y[1..n])
-         C = array(0..m, 0..n)
-
-         for i := 0..m
-         C[i,0] = 0
-
-         for j := 0..n
-         C[0,j] = 0
-
-         for i := 1..m
-         for j := 1..n
-         if X[i] = Y[j]
-         C[i,j] := C[i-1,j-1] + 1
-         else
-         C[i,j] := max(C[i,j-1], C[i-1,j])
-         return C[m,n]
-         */
-        int s1_length = s1.length();
-        int s2_length = s2.length();
-        char[] x = s1.toCharArray();
-        char[] y = s2.toCharArray();
-
-        int[][] c = new int[s1_length + 1][s2_length + 1];
-
-        for (int i = 1; i <= s1_length; i++) {
-            for (int j = 1; j <= s2_length; j++) {
-                if (x[i - 1] == y[j - 1]) {
-                    c[i][j] = c[i - 1][j - 1] + 1;
-
-                } else {
-                    c[i][j] = Math.max(c[i][j - 1], c[i - 1][j]);
-                }
-            }
+        // the common prefix and suffix are part of the LCS: only the middle
+        // part of the strings has to be processed
+        int prefix = Affixes.prefix(s1, s2);
+        int suffix = Affixes.suffix(s1, s2, prefix);
+
+        // use the shortest string as the pattern of the bit-parallel
+        // algorithm
+        String shortest = s1;
+        String longest = s2;
+        if (s1.length() > s2.length()) {
+            shortest = s2;
+            longest = s1;
+        }
+
+        int n = shortest.length() - prefix - suffix;
+        int m = longest.length() - prefix - suffix;
+
+        if (n == 0) {
+            return prefix + suffix;
+        }
+
+        // few matching pairs of characters: Hunt-Szymanski
+        int sparse = HuntSzymanski.length(longest, shortest, prefix, m, n,
+                HuntSzymanski.maxPairs(m, n), workspace);
+        if (sparse >= 0) {
+            return prefix + suffix + sparse;
         }
 
-        return c[s1_length][s2_length];
+        return prefix + suffix + BitParallelLcs.length(
+                workspace.pattern(shortest, prefix, prefix + n),
+                longest, prefix, prefix + m, workspace);
     }
 }
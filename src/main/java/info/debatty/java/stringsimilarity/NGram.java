@@ -12,12 +12,18 @@ import net.jcip.annotations.Immutable;
  * weight of first characters. The normalization is achieved by dividing the
  * total similarity score the original length of the longest word.
  *
+ * The n-grams of the second string are read in place, and the rows of the
+ * matrix are taken from a workspace, so the computation does not allocate
+ * memory. To compare one string to many others, compile it once into an
+ * NGramQuery.
+ *
  * http://webdocs.cs.ualberta.ca/~kondrak/papers/spire05.pdf
  */
 @Immutable
 public class NGram implements NormalizedStringDistance {
 
     private static final int DEFAULT_N = 2;
+    private static final char SPECIAL = '\n';
     private final int n;
 
     /**
@@ -43,6 +49,44 @@ public class NGram implements NormalizedStringDistance {
      * @throws NullPointerException if s0 or s1 is null.
      */
     public final double distance(final String s0, final String s1) {
+        return distance(s0, s1, Workspace.local());
+    }
+
+    /**
+     * Same as distance(s0, s1), but using the provided workspace instead of
+     * the default workspace of the current thread.
+     * @param s0 The first string to compare.
+     * @param s1 The second string to compare.
+     * @param workspace The scratch buffers to use for the computation.
+     * @return The computed n-gram distance in the range [0, 1]
+     * @throws NullPointerException if s0 or s1 is null.
+     */
+    public final double distance(final String s0, final String s1,
+                                 final Workspace workspace) {
+        if (s0 == null) {
+            throw new NullPointerException("s0 must not be null");
+        }
+
+        if (s1 == null) {
+            throw new NullPointerException("s1 must not be null");
+        }
+
+        return distance(s0, null, s1, Double.MAX_VALUE, workspace);
+    }
+
+    /**
+     * Compute n-gram distance, but stop as soon as the distance is known to
+     * be larger than max_distance. As all the costs are positive, the
+     * smallest value of a row of the matrix is a lower bound of the distance.
+     * @param s0 The first string to compare.
+     * @param s1 The second string to compare.
+     * @param max_distance The maximum distance of interest.
+     * @return The computed n-gram distance, or max_distance if the distance
+     * is larger than max_distance.
+     * @throws NullPointerException if s0 or s1 is null.
+     */
+    public final double distance(final String s0, final String s1,
+                                 final double max_distance) {
         if (s0 == null) {
             throw new NullPointerException("s0 must not be null");
         }
@@ -51,16 +95,84 @@ public class NGram implements NormalizedStringDistance {
             throw new NullPointerException("s1 must not be null");
         }
 
+        return distance(s0, null, s1, max_distance, Workspace.local());
+    }
+
+    /**
+     * Prepare a query string, to compute its distance to a lot of other
+     * strings using distance(NGramQuery, String).
+     * @param query The string to prepare.
+     * @return The prepared query.
+     * @throws NullPointerException if query is null.
+     */
+    public final NGramQuery compile(final String query) {
+        return new NGramQuery(query, n);
+    }
+
+    /**
+     * Same as distance(query.getQuery(), s), but the padded query is built
+     * only once.
+     * @param query The query, as returned by compile(String).
+     * @param s The string to compare.
+     * @return The computed n-gram distance in the range [0, 1]
+     * @throws NullPointerException if query or s is null.
+     * @throws IllegalArgumentException if the query was prepared for another
+     * value of n.
+     */
+    public final double distance(final NGramQuery query, final String s) {
+        return distance(query, s, Double.MAX_VALUE);
+    }
+
+    /**
+     * Same as distance(query.getQuery(), s, max_distance), but the padded
+     * query is built only once.
+     * @param query The query, as returned by compile(String).
+     * @param s The string to compare.
+     * @param max_distance The maximum distance of interest.
+     * @return The computed n-gram distance, or max_distance if the distance
+     * is larger than max_distance.
+     * @throws NullPointerException if query or s is null.
+     * @throws IllegalArgumentException if the query was prepared for another
+     * value of n.
+     */
+    public final double distance(final NGramQuery query, final String s,
+                                 final double max_distance) {
+        if (query == null) {
+            throw new NullPointerException("query must not be null");
+        }
+
+        if (s == null) {
+            throw new NullPointerException("s must not be null");
+        }
+
+        if (query.getN() != n) {
+            throw new IllegalArgumentException(
+                    "query was prepared for n = " + query.getN());
+        }
+
+        return distance(query.getQuery(), query.padded(), s, max_distance,
+                Workspace.local());
+    }
+
+    /**
+     * @param s0
+     * @param padded s0 with n - 1 special characters in front (or null)
+     * @param s1
+     * @param max_distance
+     * @param workspace
+     */
+    private double distance(final String s0, final char[] padded,
+                            final String s1, final double max_distance,
+                            final Workspace workspace) {
         if (s0.equals(s1)) {
             return 0;
         }
 
-        final char special = '\n';
         final int sl = s0.length();
         final int tl = s1.length();
 
         if (sl == 0 || tl == 0) {
-            return 1;
+            return Math.min(1, max_distance);
         }
 
         int cost = 0;
@@ -70,56 +182,48 @@ public class NGram implements NormalizedStringDistance {
                     cost++;
                 }
             }
-            return (float) cost / Math.max(sl, tl);
+            return Math.min((float) cost / Math.max(sl, tl), max_distance);
         }
 
-        char[] sa = new char[sl + n - 1];
-        float[] p; //'previous' cost array, horizontally
-        float[] d; // cost array, horizontally
-        float[] d2; //placeholder to assist in swapping p and d
-
         //construct sa with prefix
-        for (int i = 0; i < sa.length; i++) {
-            if (i < n - 1) {
-                sa[i] = special; //add prefix
-            } else {
-                sa[i] = s0.charAt(i - n + 1);
-            }
+        char[] sa = padded;
+        if (sa == null) {
+            sa = workspace.chars(0, sl + n - 1);
+            pad(s0, n, sa);
         }
-        p = new float[sl + 1];
-        d = new float[sl + 1];
+
+        float[] p = workspace.floats(0, sl + 1); //'previous' cost array
+        float[] d = workspace.floats(1, sl + 1); // cost array, horizontally
+        float[] d2; //placeholder to assist in swapping p and d
+        final int max_length = Math.max(tl, sl);
 
         // indexes into strings s and t
         int i; // iterates through source
         int j; // iterates through target
 
-        char[] t_j = new char[n]; // jth n-gram of t
-
         for (i = 0; i <= sl; i++) {
             p[i] = i;
         }
 
         for (j = 1; j <= tl; j++) {
-            //construct t_j n-gram
-            if (j < n) {
-                for (int ti = 0; ti < n - j; ti++) {
-                    t_j[ti] = special; //add prefix
-                }
-                for (int ti = n - j; ti < n; ti++) {
-                    t_j[ti] = s1.charAt(ti - (n - j));
-                }
-            } else {
-                t_j = s1.substring(j - n, j).toCharArray();
-            }
+            // the jth n-gram of t is read in place: t_j[ni] is s1[t0 + ni],
+            // or the special character if t0 + ni < 0
+            int t0 = j - n;
             d[0] = j;
+            float min = d[0];
             for (i = 1; i <= sl; i++) {
                 cost = 0;
                 int tn = n;
                 //compare sa to t_j
                 for (int ni = 0; ni < n; ni++) {
-                    if (sa[i - 1 + ni] != t_j[ni]) {
+                    char tc = SPECIAL;
+                    if (t0 + ni >= 0) {
+                        tc = s1.charAt(t0 + ni);
+                    }
+
+                    if (sa[i - 1 + ni] != tc) {
                         cost++;
-                    } else if (sa[i - 1 + ni] == special) {
+                    } else if (tc == SPECIAL) {
                         //discount matches on prefix
                         tn--;
                     }
@@ -129,7 +233,14 @@ public class NGram implements NormalizedStringDistance {
                 // diagonally left and up +cost
                 d[i] = Math.min(
                         Math.min(d[i - 1] + 1, p[i] + 1), p[i - 1] + ec);
+                min = Math.min(min, d[i]);
+            }
+
+            // the distance can only grow in the next rows
+            if (min / max_length > max_distance) {
+                return max_distance;
             }
+
             // copy current distance counts to 'previous row' distance counts
             d2 = p;
             p = d;
@@ -138,6 +249,19 @@ public class NGram implements NormalizedStringDistance {
 
         // our last action in the above loop was to switch d and p, so p now
         // actually has the most recent cost counts
-        return p[sl] / Math.max(tl, sl);
+        return Math.min(p[sl] / max_length, max_distance);
+    }
+
+    /**
+     * Copy s to dest, preceded by n - 1 special characters.
+     * @param s
+     * @param n
+     * @param dest array of length at least s.length() + n - 1
+     */
+    static void pad(final String s, final int n, final char[] dest) {
+        for (int i = 0; i < n - 1; i++) {
+            dest[i] = SPECIAL; //add prefix
+        }
+        s.getChars(0, s.length(), dest, n - 1);
     }
 }
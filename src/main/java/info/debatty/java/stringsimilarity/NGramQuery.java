@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * A query string prepared for the n-gram distance: the string, preceded by
+ * n - 1 special characters. When the same string is compared to many others,
+ * the padded string is thus built only once.
+ *
+ * Instances are created by NGram.compile(String), and can be shared between
+ * threads.
+ *
+ * @author Thibault Debatty
+ */
+@Immutable
+public final class NGramQuery {
+
+    private final String query;
+    private final int n;
+    private final char[] padded;
+
+    /**
+     * Prepare the query for n-grams of length n.
+     * @param query
+     * @param n
+     */
+    NGramQuery(final String query, final int n) {
+        if (query == null) {
+            throw new NullPointerException("query must not be null");
+        }
+
+        this.query = query;
+        this.n = n;
+        this.padded = new char[query.length() + n - 1];
+        NGram.pad(query, n, padded);
+    }
+
+    /**
+     * The original query string.
+     * @return the query
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * The length of the n-grams this query was prepared for.
+     * @return n
+     */
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * The query, preceded by n - 1 special characters.
+     * The array must not be modified.
+     */
+    char[] padded() {
+        return padded;
+    }
+}
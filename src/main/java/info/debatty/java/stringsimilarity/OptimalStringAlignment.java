@@ -35,6 +35,11 @@ import net.jcip.annotations.Immutable;
  * strings equal under the condition that no substring is edited more than once,
  * whereas Damerau-Levenshtein presents no such restriction.
  *
+ * The distance is computed with the bit-parallel algorithm of Hyyrö ("A
+ * bit-vector algorithm for computing Levenshtein and Damerau edit distances",
+ * 2003), in O(ceil(m / 64) . n) where m is the length of the shortest
+ * string, after skipping the common prefix and suffix of the strings.
+ *
  * @author Michail Bogdanos
  */
 @Immutable
@@ -52,6 +57,59 @@ public final class OptimalStringAlignment implements StringDistance {
      * @throws NullPointerException if s1 or s2 is null.
      */
     public double distance(final String s1, final String s2) {
+        return distance(s1, s2, Integer.MAX_VALUE, Workspace.local());
+    }
+
+    /**
+     * Same as distance(s1, s2), but using the provided workspace instead of
+     * the default workspace of the current thread.
+     *
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param workspace The scratch buffers to use for the computation.
+     * @return the OSA distance
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public double distance(final String s1, final String s2,
+                           final Workspace workspace) {
+        return distance(s1, s2, Integer.MAX_VALUE, workspace);
+    }
+
+    /**
+     * Compute the OSA distance, but stop as soon as it is known to be at
+     * least limit.
+     *
+     * When the shortest string does not fit in a single word, only the
+     * cells at most k diagonals away from the main diagonal are computed
+     * (with 3 rolling rows), and the computation stops as soon as a whole row
+     * of the band reaches the limit. This is useful to check if the distance
+     * is small (for example at most 2, with limit = 3) without computing the
+     * full distance.
+     *
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param limit The maximum result to compute before stopping.
+     * @return the OSA distance, or limit if the distance is at least limit.
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public double distance(final String s1, final String s2,
+                           final int limit) {
+        return distance(s1, s2, limit, Workspace.local());
+    }
+
+    /**
+     * Same as distance(s1, s2, limit), but using the provided workspace
+     * instead of the default workspace of the current thread.
+     *
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param limit The maximum result to compute before stopping.
+     * @param workspace The scratch buffers to use for the computation.
+     * @return the OSA distance, or limit if the distance is at least limit.
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public double distance(final String s1, final String s2,
+                           final int limit, final Workspace workspace) {
         if (s1 == null) {
             throw new NullPointerException("s1 must not be null");
         }
@@ -64,59 +122,195 @@ public final class OptimalStringAlignment implements StringDistance {
             return 0;
         }
 
-        int n = s1.length(), m = s2.length();
+        // the distance is at least the difference of lengths (and is
+        // exactly the length of the other string if one string is empty)
+        if (Math.abs(s1.length() - s2.length()) >= limit) {
+            return limit;
+        }
 
-        if (n == 0) {
-            return m;
+        if (s1.length() == 0) {
+            return s2.length();
         }
 
-        if (m == 0) {
-            return n;
+        if (s2.length() == 0) {
+            return s1.length();
         }
 
-        // Create the distance matrix H[0 .. s1.length+1][0 .. s2.length+1]
-        int[][] d = new int[n + 2][m + 2];
+        // an optimal alignment matches the common prefix and suffix of the
+        // strings (a transposition can not involve a character of the common
+        // prefix or suffix and be cheaper than matching it)
+        int prefix = Affixes.prefix(s1, s2);
+        int suffix = Affixes.suffix(s1, s2, prefix);
 
-        //initialize top row and leftmost column
-        for (int i = 0; i <= n; i++) {
-            d[i][0] = i;
+        // the distance is symmetric: use the shortest string as the pattern
+        // of the bit-parallel algorithm (or as rows of the band)
+        String shortest = s1;
+        String longest = s2;
+        if (s1.length() > s2.length()) {
+            shortest = s2;
+            longest = s1;
         }
-        for (int j = 0; j <= m; j++) {
-            d[0][j] = j;
+
+        int n = shortest.length() - prefix - suffix;
+        int m = longest.length() - prefix - suffix;
+
+        if (n == 0) {
+            return Math.min(m, limit);
         }
 
-        //fill the distance matrix
-        int cost;
+        if (limit >= m || n <= Long.SIZE) {
+            // the limit cannot be reached, or the bit-parallel algorithm is
+            // anyway faster than the band
+            int distance = BitParallelOsa.distance(
+                    workspace.pattern(shortest, prefix, prefix + n),
+                    longest, prefix, prefix + m, workspace);
+            return Math.min(distance, limit);
+        }
+
+        return band(shortest, longest, prefix, n, m, limit, workspace);
+    }
+
+    /**
+     * Banded dynamic programming, with 3 rolling rows.
+     *
+     * Like for Levenshtein, a path that goes through cell (i, j) costs at
+     * least |j - i| + |(m - j) - (n - i)| (a transposition does not change
+     * the diagonal). Hence we only have to compute the cells where this bound
+     * is &lt; limit. The other cells are considered infinite (i.e.
+     * &gt;= limit).
+     *
+     * @param s1 the shortest string
+     * @param s2 the longest string
+     * @param offset index of the first character to process (in both strings)
+     * @param n number of characters to process in s1
+     * @param m number of characters to process in s2
+     * @param limit
+     * @param workspace
+     * @return the distance, or limit if the distance is &gt;= limit
+     */
+    private static int band(final String s1, final String s2,
+                            final int offset, final int n, final int m,
+                            final int limit, final Workspace workspace) {
+
+        int diff = m - n;
+
+        // we need the exact distance only if it is <= k
+        int k = limit - 1;
+
+        // cells (i, j) with i - lo <= j <= i + diff + lo
+        int lo = (k - diff) / 2;
+        int hi = diff + lo;
+
+        // The recurrence only looks 2 rows back, so we only keep 3 rows of
+        // the distance matrix: d0 = row i - 2, d1 = row i - 1, d2 = row i
+        int[] d0 = workspace.ints(0, m + 1);
+        int[] d1 = workspace.ints(1, m + 1);
+        int[] d2 = workspace.ints(2, m + 1);
+        int[] dtemp;
+
+        // top row: d[0][j] = j
+        int end = Math.min(m, hi);
+        for (int j = 0; j <= end; j++) {
+            d1[j] = j;
+        }
+        if (end < m) {
+            d1[end + 1] = limit;
+        }
 
         for (int i = 1; i <= n; i++) {
-            for (int j = 1; j <= m; j++) {
+            int start = Math.max(1, i - lo);
+            end = Math.min(m, i + hi);
+
+            if (start == 1) {
+                d2[0] = i;
+            } else {
+                d2[start - 1] = limit;
+            }
+
+            int min_row = limit;
+            char c1 = s1.charAt(offset + i - 1);
 
-                //if s1[i - 1] = s2[j - 1] then cost = 0, else cost = 1
-                cost = 1;
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
+            for (int j = start; j <= end; j++) {
+                char c2 = s2.charAt(offset + j - 1);
+
+                int cost = 1;
+                if (c1 == c2) {
                     cost = 0;
                 }
 
-                d[i][j] = min(
-                        d[i - 1][j - 1] + cost, // substitution
-                        d[i][j - 1] + 1, // insertion
-                        d[i - 1][j] + 1 // deletion
-                );
+                int value = min(
+                        d1[j - 1] + cost, // substitution
+                        d2[j - 1] + 1, // insertion
+                        d1[j] + 1); // deletion
 
-                //transposition check
+                // transposition
                 if (i > 1 && j > 1
-                        && s1.charAt(i - 1) == s2.charAt(j - 2)
-                        && s1.charAt(i - 2) == s2.charAt(j - 1)) {
-                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + cost);
+                        && c1 == s2.charAt(offset + j - 2)
+                        && s1.charAt(offset + i - 2) == c2) {
+                    value = Math.min(value, d0[j - 2] + cost);
                 }
+
+                // everything >= limit is "infinite"
+                d2[j] = Math.min(value, limit);
+                min_row = Math.min(min_row, value);
+            }
+
+            if (end < m) {
+                d2[end + 1] = limit;
             }
+
+            // every path with a cost < limit goes through the band
+            if (min_row >= limit) {
+                return limit;
+            }
+
+            // rotate rows
+            dtemp = d0;
+            d0 = d1;
+            d1 = d2;
+            d2 = dtemp;
         }
 
-        return d[n][m];
+        return Math.min(d1[m], limit);
     }
 
-    private static int min(
-            final int a, final int b, final int c) {
+    private static int min(final int a, final int b, final int c) {
         return Math.min(a, Math.min(b, c));
     }
+
+    /**
+     * Compile a pattern, to compute its distance to a lot of other strings
+     * using distance(CompiledPattern, String).
+     *
+     * @param pattern The string to compile.
+     * @return The compiled pattern.
+     * @throws NullPointerException if pattern is null.
+     */
+    public CompiledPattern compile(final String pattern) {
+        return new CompiledPattern(pattern);
+    }
+
+    /**
+     * Compute the OSA distance between a compiled pattern and a string,
+     * using the bit-parallel algorithm of Hyyrö (2003). The result is the
+     * same as distance(pattern.getPattern(), s), but the match masks of the
+     * pattern are computed only once.
+     *
+     * @param pattern The compiled pattern, as returned by compile(String).
+     * @param s The string to compare.
+     * @return the OSA distance
+     * @throws NullPointerException if pattern or s is null.
+     */
+    public double distance(final CompiledPattern pattern, final String s) {
+        if (pattern == null) {
+            throw new NullPointerException("pattern must not be null");
+        }
+
+        if (s == null) {
+            throw new NullPointerException("s must not be null");
+        }
+
+        return BitParallelOsa.distance(
+                pattern, s, 0, s.length(), Workspace.local());
+    }
 }
@@ -0,0 +1,338 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Bounded cache of compact shingle profiles, that can be attached to a
+ * ShingleBased metric (Cosine, Jaccard, SorensenDice or QGram) so that the
+ * profiles of frequently compared strings are not rebuilt for each call.
+ *
+ * The size of the cache is bounded by an approximate memory budget: each
+ * entry is weighted by the estimated size of the string and of its profile.
+ * The cache is split in stripes (selected by the hash of the entry), each
+ * with its own lock, its own share of the budget and its own LRU order, so
+ * that it scales with the number of threads. The eviction policy is plain
+ * LRU within this budget: there is no admission policy, so every new entry
+ * is added and the least recently used entries of its stripe are evicted
+ * until the stripe fits its share of the budget again. The only exception
+ * is an entry heavier than the share of a stripe (max_bytes / stripes),
+ * which is never cached (it would evict the whole stripe).
+ *
+ * Entries are identified by the string, k and the hashing mode, so a cache
+ * can be shared between metrics with different values of k or different
+ * hashing modes (which then store separate profiles for the same string).
+ *
+ * @author Thibault Debatty
+ */
+@ThreadSafe
+public final class ProfileCache {
+
+    /**
+     * Estimated overhead of an entry (map entry, key, String and profile
+     * objects, arrays headers).
+     */
+    private static final int ENTRY_OVERHEAD = 184;
+    private static final int BYTES_PER_SHINGLE =
+            (Long.SIZE + Integer.SIZE) / Byte.SIZE;
+    private static final int BYTES_PER_CHAR = Character.SIZE / Byte.SIZE;
+    private static final int STRIPES_PER_CPU = 4;
+    private static final int HASH = 0x9E3779B9;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final long max_weight;
+    private final Stripe[] stripes;
+    private final int shift;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create a cache with the given memory budget, and a number of stripes
+     * that depends on the number of processors.
+     * @param max_bytes the approximate maximum memory used by the cache
+     * @throws IllegalArgumentException if max_bytes is negative
+     */
+    public ProfileCache(final long max_bytes) {
+        this(max_bytes,
+                STRIPES_PER_CPU * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a cache with the given memory budget and number of stripes.
+     * @param max_bytes the approximate maximum memory used by the cache
+     * @param stripes the number of independently locked parts of the cache
+     *                (rounded up to a power of 2)
+     * @throws IllegalArgumentException if max_bytes is negative or stripes
+     * is not positive
+     */
+    public ProfileCache(final long max_bytes, final int stripes) {
+        if (max_bytes < 0) {
+            throw new IllegalArgumentException(
+                    "max_bytes must not be negative");
+        }
+
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripes must be positive");
+        }
+
+        int count = Integer.highestOneBit(stripes);
+        if (count < stripes) {
+            count <<= 1;
+        }
+
+        this.max_weight = max_bytes;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(max_bytes / count);
+        }
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(count);
+    }
+
+    /**
+     * Get the profile of string computed with the given k and hashing mode,
+     * or null if it is not in the cache.
+     * @param k
+     * @param hashing
+     * @param string
+     * @return the profile, or null
+     */
+    ShingleProfile get(final int k, final ShingleHashing hashing,
+                       final String string) {
+        Key key = new Key(k, hashing, string);
+        ShingleProfile profile = stripe(key).get(key);
+        if (profile == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return profile;
+    }
+
+    /**
+     * Add the profile of string to the cache, and evict the least recently
+     * used entries of its stripe if needed.
+     * @param string
+     * @param profile
+     */
+    void put(final String string, final ShingleProfile profile) {
+        Key key = new Key(profile.getK(), profile.getHashing(), string);
+        evictions.add(stripe(key).put(key, profile));
+    }
+
+    /**
+     * Number of times a profile was found in the cache.
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of times a profile was not found in the cache.
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of profiles evicted to respect the memory budget.
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Number of profiles in the cache.
+     * @return the number of profiles
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Estimated memory used by the profiles in the cache.
+     * @return the estimated size, in bytes
+     */
+    public long getWeight() {
+        long weight = 0;
+        for (Stripe stripe : stripes) {
+            weight += stripe.totalWeight();
+        }
+        return weight;
+    }
+
+    /**
+     * The memory budget of the cache.
+     * @return the maximum size, in bytes
+     */
+    public long getMaxWeight() {
+        return max_weight;
+    }
+
+    /**
+     * Remove all the profiles (the counters are not reset).
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Estimated memory used by an entry.
+     * @param string
+     * @param profile
+     * @return the estimated size, in bytes
+     */
+    static long weight(final String string, final ShingleProfile profile) {
+        return ENTRY_OVERHEAD
+                + (long) BYTES_PER_CHAR * string.length()
+                + (long) BYTES_PER_SHINGLE * profile.size();
+    }
+
+    private Stripe stripe(final Key key) {
+        if (stripes.length == 1) {
+            return stripes[0];
+        }
+        return stripes[(key.hashCode() * HASH) >>> shift];
+    }
+
+    /**
+     * Identify a profile: the string, k, and the hashing mode that gives the
+     * keys of the profile (none for exact profiles).
+     */
+    private static final class Key {
+
+        private final int k;
+        private final ShingleHashing hashing;
+        private final String string;
+
+        Key(final int k, final ShingleHashing hashing, final String string) {
+            this.k = k;
+            this.string = string;
+            if (ShingleBased.isPacked(k)) {
+                this.hashing = null;
+            } else {
+                this.hashing = ShingleProfile.keyHashing(hashing);
+            }
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) other;
+            return key.k == k
+                    && key.hashing == hashing
+                    && key.string.equals(string);
+        }
+
+        @Override
+        public int hashCode() {
+            return string.hashCode() + k;
+        }
+    }
+
+    /**
+     * Part of the cache, with its own lock and LRU order.
+     */
+    private static final class Stripe {
+
+        private final long max_weight;
+
+        @GuardedBy("this")
+        private final LinkedHashMap<Key, ShingleProfile> profiles =
+                new LinkedHashMap<Key, ShingleProfile>(
+                        INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+        @GuardedBy("this")
+        private long weight;
+
+        Stripe(final long max_weight) {
+            this.max_weight = max_weight;
+        }
+
+        synchronized ShingleProfile get(final Key key) {
+            return profiles.get(key);
+        }
+
+        /**
+         * @return the number of evicted entries
+         */
+        synchronized int put(final Key key, final ShingleProfile profile) {
+            long entry_weight = weight(key.string, profile);
+            if (entry_weight > max_weight) {
+                // would evict everything else
+                return 0;
+            }
+
+            ShingleProfile old = profiles.put(key, profile);
+            if (old != null) {
+                weight -= weight(key.string, old);
+            }
+            weight += entry_weight;
+
+            int evicted = 0;
+            Iterator<Map.Entry<Key, ShingleProfile>> eldest =
+                    profiles.entrySet().iterator();
+            while (weight > max_weight) {
+                Map.Entry<Key, ShingleProfile> entry = eldest.next();
+                weight -= weight(entry.getKey().string, entry.getValue());
+                eldest.remove();
+                evicted++;
+            }
+            return evicted;
+        }
+
+        synchronized int size() {
+            return profiles.size();
+        }
+
+        synchronized long totalWeight() {
+            return weight;
+        }
+
+        synchronized void clear() {
+            profiles.clear();
+            weight = 0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.nio.ByteBuffer;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Sequential reader of a profile stored in a ProfileStore: it decodes the
+ * keys and counts one by one, directly from the mapped file.
+ *
+ * @author Thibault Debatty
+ */
+@NotThreadSafe
+final class ProfileCursor {
+
+    // variable length integers: 7 bits per byte, the highest bit is set if
+    // more bytes follow
+    static final int VARINT_BITS = 7;
+    static final int VARINT_MASK = 0x7F;
+
+    private ByteBuffer buffer;
+    private int key_position;
+    private int count_position;
+    private int next_position;
+    private int size;
+    private int remaining;
+    private double norm;
+    private long key;
+    private int count;
+
+    /**
+     * Position the cursor before the first shingle of profile i.
+     * @param store
+     * @param i
+     * @return this cursor
+     * @throws IndexOutOfBoundsException if there is no profile i.
+     */
+    ProfileCursor reset(final ProfileStore store, final int i) {
+        long offset = store.offset(i);
+        buffer = store.segment(offset);
+        int position = store.position(offset);
+
+        norm = buffer.getDouble(position);
+        size = (int) readVarint(position + Double.BYTES);
+        int keys_length = (int) readVarint(next_position);
+        key_position = next_position;
+        count_position = key_position + keys_length;
+        remaining = size;
+        key = 0;
+        count = 0;
+        return this;
+    }
+
+    /**
+     * Move to the next shingle.
+     * @return false if there is no more shingle
+     */
+    boolean next() {
+        if (remaining == 0) {
+            return false;
+        }
+        // the first key is zigzag encoded, the next ones are stored as the
+        // difference with the previous key
+        long value = readVarint(key_position);
+        if (remaining == size) {
+            key = (value >>> 1) ^ -(value & 1);
+        } else {
+            key += value;
+        }
+        remaining--;
+        key_position = next_position;
+        count = (int) readVarint(count_position);
+        count_position = next_position;
+        return true;
+    }
+
+    /**
+     * Key of the current shingle.
+     * @return the key
+     */
+    long key() {
+        return key;
+    }
+
+    /**
+     * Number of occurrences of the current shingle.
+     * @return the count
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * Number of distinct shingles of the profile.
+     * @return the number of distinct shingles
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * L2 norm of the profile.
+     * @return the norm
+     */
+    double norm() {
+        return norm;
+    }
+
+    /**
+     * Read the variable length integer at the given position, and set
+     * next_position to the position that follows it.
+     */
+    private long readVarint(final int position) {
+        long value = 0;
+        int shift = 0;
+        int p = position;
+        while (true) {
+            byte b = buffer.get(p);
+            p++;
+            value |= (long) (b & VARINT_MASK) << shift;
+            if (b >= 0) {
+                next_position = p;
+                return value;
+            }
+            shift += VARINT_BITS;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import net.jcip.annotations.Immutable;
+
+/**
+ * Read-only store of shingle profiles, written by a ProfileStoreWriter and
+ * memory-mapped from disk. Opening a store only reads its header: the
+ * profiles are not loaded on the heap, and the operating system pages them
+ * in when they are used. Cosine, Jaccard, SorensenDice and QGram compare
+ * the stored profiles directly from the mapped file, without decoding them
+ * into ShingleProfile objects.
+ *
+ * The file starts with a header, followed by the profiles and by an index
+ * holding the offset of each profile. Each profile is stored as its L2 norm,
+ * its number of distinct shingles, the sorted keys of the shingles (the
+ * first key zigzag encoded, then the difference with the previous key, as
+ * variable length integers) and then the counts (as variable length
+ * integers). The file is mapped by segments of at most 1 GB, and a
+ * profile never crosses the boundary between two segments.
+ *
+ * The store is immutable, and can be used by several threads at the same
+ * time. The file must not be modified while the store is open.
+ *
+ * @author Thibault Debatty
+ */
+@Immutable
+public final class ProfileStore {
+
+    static final int MAGIC = 0x53485053;
+    static final int VERSION = 2;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    // layout of the header
+    static final int HEADER_SIZE = 40;
+    static final int VERSION_POSITION = 4;
+    static final int K_POSITION = 8;
+    static final int HASHING_POSITION = 12;
+    static final int SEGMENT_SHIFT_POSITION = 16;
+    static final int COUNT_POSITION = 24;
+    static final int INDEX_POSITION = 32;
+
+    // segments of 1 GB
+    static final int DEFAULT_SEGMENT_SHIFT = 30;
+    static final int MIN_SEGMENT_SHIFT = 10;
+
+    private final int k;
+    private final ShingleHashing hashing;
+    private final int count;
+    private final int segment_shift;
+    private final long segment_mask;
+    private final ByteBuffer[] segments;
+    private final ByteBuffer[] index;
+
+    /**
+     * Open the store written in the given file.
+     * @param file
+     * @throws IOException if the file can not be read, or is not a complete
+     * profile store.
+     * @throws NullPointerException if file is null.
+     */
+    public ProfileStore(final File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file must not be null");
+        }
+
+        FileChannel channel =
+                FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Not a profile store: " + file);
+                }
+            }
+
+            int hashing_id = header.getInt(HASHING_POSITION);
+            int shift = header.getInt(SEGMENT_SHIFT_POSITION);
+            if (header.getInt(0) != MAGIC
+                    || header.getInt(VERSION_POSITION) != VERSION
+                    || hashing_id < 0
+                    || hashing_id >= ShingleHashing.values().length
+                    || shift < MIN_SEGMENT_SHIFT
+                    || shift > DEFAULT_SEGMENT_SHIFT) {
+                throw new IOException("Not a profile store: " + file);
+            }
+
+            this.k = header.getInt(K_POSITION);
+            this.hashing = ShingleHashing.values()[hashing_id];
+            this.segment_shift = shift;
+            this.segment_mask = (1L << segment_shift) - 1;
+            this.count = (int) header.getLong(COUNT_POSITION);
+            long index_offset = header.getLong(INDEX_POSITION);
+
+            long index_length = (long) Long.BYTES * count;
+            if (index_offset < HEADER_SIZE
+                    || channel.size() < index_offset + index_length) {
+                throw new IOException("Truncated profile store: " + file);
+            }
+
+            this.segments = map(channel, 0, index_offset);
+            this.index = map(channel, index_offset, index_length);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Map the range [from, from + length) of the channel by segments.
+     */
+    private ByteBuffer[] map(final FileChannel channel, final long from,
+                             final long length) throws IOException {
+        int size = (int) ((length + segment_mask) >>> segment_shift);
+        ByteBuffer[] buffers = new ByteBuffer[size];
+        for (int s = 0; s < size; s++) {
+            long start = (long) s << segment_shift;
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    from + start,
+                    Math.min(segment_mask + 1, length - start));
+            buffers[s] = buffer.order(ORDER);
+        }
+        return buffers;
+    }
+
+    /**
+     * Number of profiles in the store.
+     * @return the number of profiles
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Return k, the length of the shingles of the stored profiles.
+     * @return the length of the shingles
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * How the keys of the stored profiles were computed.
+     * @return the hashing mode
+     */
+    public ShingleHashing getHashing() {
+        return hashing;
+    }
+
+    /**
+     * Number of distinct shingles of profile i.
+     * @param i
+     * @return the number of distinct shingles
+     * @throws IndexOutOfBoundsException if there is no profile i.
+     */
+    public int getProfileSize(final int i) {
+        return new ProfileCursor().reset(this, i).size();
+    }
+
+    /**
+     * The L2 norm of profile i: sqrt(Sum_i( v_i²)).
+     * @param i
+     * @return the norm
+     * @throws IndexOutOfBoundsException if there is no profile i.
+     */
+    public double getNorm(final int i) {
+        return new ProfileCursor().reset(this, i).norm();
+    }
+
+    /**
+     * Decode profile i.
+     * @param i
+     * @return the profile
+     * @throws IndexOutOfBoundsException if there is no profile i.
+     */
+    public ShingleProfile getProfile(final int i) {
+        ProfileCursor cursor = new ProfileCursor().reset(this, i);
+        long[] keys = new long[cursor.size()];
+        int[] counts = new int[cursor.size()];
+        for (int j = 0; cursor.next(); j++) {
+            keys[j] = cursor.key();
+            counts[j] = cursor.count();
+        }
+        return new ShingleProfile(k, hashing, keys, counts);
+    }
+
+    /**
+     * Check that the given profile can be compared with the stored
+     * profiles.
+     * @param profile
+     * @throws IllegalArgumentException if the profile was built with another
+     * value of k, or another hashing mode
+     */
+    void checkCompatible(final ShingleProfile profile) {
+        if (profile.getK() != k) {
+            throw new IllegalArgumentException(
+                    "Profiles were built with different values of k");
+        }
+
+        if (!profile.isCompatible(k, hashing)) {
+            throw new IllegalArgumentException(
+                    "Profiles were built with different hashing modes");
+        }
+    }
+
+    /**
+     * Offset of profile i in the file.
+     * @param i
+     * @return the offset
+     */
+    long offset(final int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("No profile " + i);
+        }
+
+        long position = (long) Long.BYTES * i;
+        return index[(int) (position >>> segment_shift)].getLong(
+                (int) (position & segment_mask));
+    }
+
+    /**
+     * The mapped segment that holds the given offset.
+     * @param offset
+     * @return the segment
+     */
+    ByteBuffer segment(final long offset) {
+        return segments[(int) (offset >>> segment_shift)];
+    }
+
+    /**
+     * The position of the given offset in its segment.
+     * @param offset
+     * @return the position in the segment
+     */
+    int position(final long offset) {
+        return (int) (offset & segment_mask);
+    }
+}
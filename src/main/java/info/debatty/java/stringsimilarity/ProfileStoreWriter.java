@@ -0,0 +1,316 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Write the shingle profiles of a lot of strings to a file, to open it later
+ * as a ProfileStore. The profiles are written as soon as they are added, and
+ * the index is written when the writer is closed: a store that was not
+ * closed can not be opened. The writer keeps the offset of each profile in
+ * memory (8 bytes per profile).
+ *
+ * <pre>
+ * Cosine cosine = new Cosine(3);
+ * ProfileStoreWriter writer = new ProfileStoreWriter(file, cosine);
+ * for (String s : strings) {
+ *     writer.add(s);
+ * }
+ * writer.close();
+ * ProfileStore store = new ProfileStore(file);
+ * </pre>
+ *
+ * @author Thibault Debatty
+ */
+@NotThreadSafe
+public final class ProfileStoreWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 65536;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // maximum length of a variable length long and int
+    private static final int MAX_LONG_LENGTH = 10;
+    private static final int MAX_INT_LENGTH = 5;
+
+    private final ShingleBased shingling;
+    private final int segment_shift;
+    private final FileChannel channel;
+    private final OutputStream out;
+    private ByteBuffer record = ByteBuffer.allocate(INITIAL_CAPACITY)
+            .order(ProfileStore.ORDER);
+    private long[] offsets = new long[INITIAL_CAPACITY];
+    private int count;
+    private long position;
+    private boolean closed;
+
+    /**
+     * Create (or overwrite) the given file, to store the profiles computed
+     * by the given metric.
+     * @param file
+     * @param shingling the metric used to compute the profiles
+     * @throws IOException if the file can not be created.
+     * @throws NullPointerException if file or shingling is null.
+     */
+    public ProfileStoreWriter(final File file, final ShingleBased shingling)
+            throws IOException {
+        this(file, shingling, ProfileStore.DEFAULT_SEGMENT_SHIFT);
+    }
+
+    /**
+     * @param file
+     * @param shingling
+     * @param segment_shift the log2 of the size of the mapped segments
+     */
+    ProfileStoreWriter(final File file, final ShingleBased shingling,
+                       final int segment_shift) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file must not be null");
+        }
+
+        if (shingling == null) {
+            throw new NullPointerException("shingling must not be null");
+        }
+
+        this.shingling = shingling;
+        this.segment_shift = segment_shift;
+        this.channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.out = new BufferedOutputStream(
+                Channels.newOutputStream(channel), BUFFER_SIZE);
+
+        // the header is written by close()
+        pad(ProfileStore.HEADER_SIZE);
+    }
+
+    /**
+     * Compute the profile of s, and add it to the store.
+     * @param s
+     * @return the index of the profile in the store
+     * @throws IOException if the profile can not be written.
+     * @throws NullPointerException if s is null.
+     * @throws IllegalStateException if the writer is closed.
+     */
+    public int add(final String s) throws IOException {
+        return add(shingling.getShingleProfile(s));
+    }
+
+    /**
+     * Add a profile to the store.
+     * @param profile
+     * @return the index of the profile in the store
+     * @throws IOException if the profile can not be written.
+     * @throws NullPointerException if profile is null.
+     * @throws IllegalArgumentException if the profile was built with another
+     * value of k or another hashing mode than the metric of this writer, or
+     * is too large to fit in a segment.
+     * @throws IllegalStateException if the writer is closed, or already holds
+     * Integer.MAX_VALUE profiles.
+     */
+    public int add(final ShingleProfile profile) throws IOException {
+        if (profile == null) {
+            throw new NullPointerException("profile must not be null");
+        }
+
+        if (closed) {
+            throw new IllegalStateException("The writer is closed");
+        }
+
+        if (!profile.isCompatible(shingling.getK(), shingling.getHashing())) {
+            throw new IllegalArgumentException(
+                    "The profile was built with another value of k or "
+                    + "another hashing mode");
+        }
+
+        if (count == Integer.MAX_VALUE) {
+            throw new IllegalStateException("The store is full");
+        }
+
+        encode(profile);
+        int length = record.position();
+        long segment_size = 1L << segment_shift;
+        if (length > segment_size) {
+            throw new IllegalArgumentException(
+                    "The profile is too large to be stored");
+        }
+
+        // a profile never crosses the boundary of a segment
+        long end = position + length - 1;
+        if ((position >>> segment_shift) != (end >>> segment_shift)) {
+            pad((int) (segment_size - (position & (segment_size - 1))));
+        }
+
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, grow(count));
+        }
+        offsets[count] = position;
+        out.write(record.array(), 0, length);
+        position += length;
+        count++;
+        return count - 1;
+    }
+
+    /**
+     * Number of profiles added to the store.
+     * @return the number of profiles
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Write the index and the header of the store, and close the file.
+     * @throws IOException if the file can not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            long index_offset = position;
+            ByteBuffer entry = ByteBuffer.allocate(Long.BYTES)
+                    .order(ProfileStore.ORDER);
+            for (int i = 0; i < count; i++) {
+                entry.putLong(0, offsets[i]);
+                out.write(entry.array());
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(ProfileStore.HEADER_SIZE)
+                    .order(ProfileStore.ORDER);
+            header.putInt(0, ProfileStore.MAGIC);
+            header.putInt(ProfileStore.VERSION_POSITION, ProfileStore.VERSION);
+            header.putInt(ProfileStore.K_POSITION, shingling.getK());
+            header.putInt(ProfileStore.HASHING_POSITION,
+                    shingling.getHashing().ordinal());
+            header.putInt(ProfileStore.SEGMENT_SHIFT_POSITION, segment_shift);
+            header.putLong(ProfileStore.COUNT_POSITION, count);
+            header.putLong(ProfileStore.INDEX_POSITION, index_offset);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Encode the profile in record: norm, size, length of the keys, keys
+     * (delta encoded) and counts.
+     */
+    private void encode(final ShingleProfile profile) {
+        long[] keys = profile.keys();
+        int[] counts = profile.counts();
+
+        int capacity = Double.BYTES + MAX_INT_LENGTH * 2
+                + keys.length * (MAX_LONG_LENGTH + MAX_INT_LENGTH);
+        if (record.capacity() < capacity) {
+            record = ByteBuffer.allocate(grow(capacity))
+                    .order(ProfileStore.ORDER);
+        }
+        record.clear();
+
+        int keys_length = 0;
+        for (int i = 0; i < keys.length; i++) {
+            keys_length += varintLength(keyDelta(keys, i));
+        }
+
+        record.putDouble(SortedMerge.norm(counts));
+        putVarint(keys.length);
+        putVarint(keys_length);
+
+        for (int i = 0; i < keys.length; i++) {
+            putVarint(keyDelta(keys, i));
+        }
+
+        for (int c : counts) {
+            putVarint(c);
+        }
+    }
+
+    /**
+     * The value stored for key i: the first key is zigzag encoded (so that
+     * small negative keys are short), and the next ones are the difference
+     * with the previous key, as an unsigned long.
+     */
+    private static long keyDelta(final long[] keys, final int i) {
+        if (i == 0) {
+            return (keys[0] << 1) ^ (keys[0] >> (Long.SIZE - 1));
+        }
+        return keys[i] - keys[i - 1];
+    }
+
+    private void putVarint(final long value) {
+        long v = value;
+        while ((v & ~ProfileCursor.VARINT_MASK) != 0) {
+            record.put((byte) ((v & ProfileCursor.VARINT_MASK)
+                    | (ProfileCursor.VARINT_MASK + 1)));
+            v >>>= ProfileCursor.VARINT_BITS;
+        }
+        record.put((byte) v);
+    }
+
+    private static int varintLength(final long value) {
+        long v = value >>> ProfileCursor.VARINT_BITS;
+        int length = 1;
+        while (v != 0) {
+            v >>>= ProfileCursor.VARINT_BITS;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Write length zero bytes.
+     */
+    private void pad(final int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            out.write(0);
+        }
+        position += length;
+    }
+
+    private static int grow(final int size) {
+        int grown = size + (size >> 1);
+        if (grown < size) {
+            return Integer.MAX_VALUE;
+        }
+        return grown;
+    }
+}
@@ -2,9 +2,7 @@ package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.interfaces.StringDistance;
 
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import net.jcip.annotations.Immutable;
 
@@ -36,6 +34,30 @@ public class QGram extends ShingleBased implements StringDistance {
         super(k);
     }
 
+    /**
+     * Same as QGram(k), with the given hashing mode for the compact
+     * profiles (see ShingleHashing).
+     *
+     * @param k
+     * @param hashing
+     */
+    public QGram(final int k, final ShingleHashing hashing) {
+        super(k, hashing);
+    }
+
+    /**
+     * Same as QGram(k, hashing), with a cache of the compact profiles
+     * of the strings (see ProfileCache).
+     *
+     * @param k
+     * @param hashing
+     * @param cache
+     */
+    public QGram(final int k, final ShingleHashing hashing,
+            final ProfileCache cache) {
+        super(k, hashing, cache);
+    }
+
     /**
      * Q-gram similarity and distance. Defined by Ukkonen in "Approximate
      * string-matching with q-grams and maximal matches",
@@ -72,10 +94,29 @@ public class QGram extends ShingleBased implements StringDistance {
             return 0;
         }
 
-        Map<String, Integer> profile1 = getProfile(s1);
-        Map<String, Integer> profile2 = getProfile(s2);
+        Workspace workspace = Workspace.local();
+        return distance(getShingleProfile(s1, workspace),
+                getShingleProfile(s2, workspace));
+    }
 
-        return distance(profile1, profile2);
+    /**
+     * Compute QGram distance using precomputed compact profiles.
+     *
+     * @param profile1
+     * @param profile2
+     * @return The computed Q-gram distance.
+     * @throws NullPointerException if profile1 or profile2 is null.
+     * @throws IllegalArgumentException if the profiles were built with
+     * different values of k.
+     */
+    public final double distance(
+            final ShingleProfile profile1,
+            final ShingleProfile profile2) {
+        profile1.checkCompatible(profile2);
+
+        return SortedMerge.l1Distance(
+                profile1.keys(), profile1.counts(),
+                profile2.keys(), profile2.counts());
     }
 
     /**
@@ -89,25 +130,89 @@ public class QGram extends ShingleBased implements StringDistance {
             final Map<String, Integer> profile1,
             final Map<String, Integer> profile2) {
 
-        Set<String> union = new HashSet<String>();
-        union.addAll(profile1.keySet());
-        union.addAll(profile2.keySet());
-
+        // shingles of profile1, then shingles that appear only in profile2,
+        // without building the union of the keys
         int agg = 0;
-        for (String key : union) {
-            int v1 = 0;
+        for (Map.Entry<String, Integer> entry : profile1.entrySet()) {
             int v2 = 0;
-            Integer iv1 = profile1.get(key);
-            if (iv1 != null) {
-                v1 = iv1;
-            }
-
-            Integer iv2 = profile2.get(key);
+            Integer iv2 = profile2.get(entry.getKey());
             if (iv2 != null) {
                 v2 = iv2;
             }
-            agg += Math.abs(v1 - v2);
+            agg += Math.abs(entry.getValue() - v2);
+        }
+
+        for (Map.Entry<String, Integer> entry : profile2.entrySet()) {
+            if (!profile1.containsKey(entry.getKey())) {
+                agg += entry.getValue();
+            }
         }
         return agg;
     }
+
+    /**
+     * Compute QGram distance between sparse vectors of the same vocabulary.
+     *
+     * @param vector1
+     * @param vector2
+     * @return The computed Q-gram distance.
+     * @throws NullPointerException if vector1 or vector2 is null.
+     * @throws IllegalArgumentException if the vectors come from different
+     * vocabularies.
+     */
+    public final double distance(
+            final ShingleVector vector1,
+            final ShingleVector vector2) {
+        vector1.checkCompatible(vector2);
+
+        return SortedMerge.l1Distance(
+                vector1.ids(), vector1.counts(),
+                vector2.ids(), vector2.counts());
+    }
+
+    /**
+     * Compute QGram distance between two profiles of a store, read directly
+     * from the mapped file.
+     *
+     * @param store
+     * @param i index of the first profile
+     * @param j index of the second profile
+     * @return The computed Q-gram distance.
+     * @throws NullPointerException if store is null.
+     * @throws IndexOutOfBoundsException if there is no profile i or j.
+     * @throws IllegalArgumentException if the store was built with another
+     * value of k or another hashing mode than this metric.
+     */
+    public final double distance(
+            final ProfileStore store, final int i, final int j) {
+        checkCompatible(store);
+        Workspace workspace = Workspace.local();
+        ProfileCursor cursor1 = workspace.cursor(0, store, i);
+        ProfileCursor cursor2 = workspace.cursor(1, store, j);
+        return SortedMerge.l1Distance(cursor1, cursor2);
+    }
+
+    /**
+     * Compute QGram distance between a compact profile and a profile of a
+     * store, read directly from the mapped file.
+     *
+     * @param profile
+     * @param store
+     * @param i index of the stored profile
+     * @return The computed Q-gram distance.
+     * @throws NullPointerException if profile or store is null.
+     * @throws IndexOutOfBoundsException if there is no profile i.
+     * @throws IllegalArgumentException if the profile or the store was
+     * built with another value of k or another hashing mode than this
+     * metric.
+     */
+    public final double distance(
+            final ShingleProfile profile, final ProfileStore store,
+            final int i) {
+        checkCompatible(store);
+        store.checkCompatible(profile);
+        ProfileCursor cursor = Workspace.local().cursor(0, store, i);
+        return SortedMerge.l1Distance(
+                profile.keys(), profile.counts(), cursor);
+    }
 }
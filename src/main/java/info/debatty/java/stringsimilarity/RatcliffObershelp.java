@@ -25,8 +25,6 @@ package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.interfaces.NormalizedStringSimilarity;
 import info.debatty.java.stringsimilarity.interfaces.NormalizedStringDistance;
-import java.util.List;
-import java.util.ArrayList;
 
 import net.jcip.annotations.Immutable;
 
@@ -40,6 +38,11 @@ import net.jcip.annotations.Immutable;
  * The Ratcliff/Obershelp distance is computed as 1 - Ratcliff/Obershelp
  * similarity.
  *
+ * The longest common substring of each region is found with a suffix
+ * automaton of the region of s2, in linear time, and the regions are
+ * processed as index ranges on an explicit stack instead of substrings and
+ * recursive calls.
+ *
  * @author Ligi https://github.com/dxpux (as a patch for fuzzystring)
  * Ported to java from .net by denmase
  */
@@ -47,6 +50,15 @@ import net.jcip.annotations.Immutable;
 public class RatcliffObershelp implements
         NormalizedStringSimilarity, NormalizedStringDistance {
 
+    // int buffers of the workspace
+    private static final int STACK = 0;
+
+    // a frame of the stack: s1[from1, to1) and s2[from2, to2)
+    private static final int FRAME = 4;
+    private static final int TO1 = 1;
+    private static final int FROM2 = 2;
+    private static final int TO2 = 3;
+
     /**
      * Compute the Ratcliff-Obershelp similarity between strings.
      *
@@ -57,6 +69,21 @@ public class RatcliffObershelp implements
      */
     @Override
     public final double similarity(final String s1, final String s2) {
+        return similarity(s1, s2, Workspace.local());
+    }
+
+    /**
+     * Same as similarity(s1, s2), but using the provided workspace instead
+     * of the default workspace of the current thread.
+     *
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param workspace The scratch buffers to use for the computation.
+     * @return The RatcliffObershelp similarity in the range [0, 1]
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public final double similarity(final String s1, final String s2,
+                                   final Workspace workspace) {
         if (s1 == null) {
             throw new NullPointerException("s1 must not be null");
         }
@@ -69,13 +96,7 @@ public class RatcliffObershelp implements
             return 1.0d;
         }
 
-        List<String> matches = getMatchList(s1, s2);
-        int sum_of_matches = 0;
-
-        for (String match : matches) {
-            sum_of_matches += match.length();
-        }
-
+        int sum_of_matches = sumOfMatches(s1, s2, workspace);
         return 2.0d * sum_of_matches / (s1.length() + s2.length());
     }
 
@@ -92,41 +113,64 @@ public class RatcliffObershelp implements
         return 1.0d - similarity(s1, s2);
     }
 
-    private static List<String> getMatchList(final String s1, final String s2) {
-        List<String> list = new ArrayList<String>();
-        String match = frontMaxMatch(s1, s2);
-
-        if (match.length() > 0) {
-            String frontsource = s1.substring(0, s1.indexOf(match));
-            String fronttarget = s2.substring(0, s2.indexOf(match));
-            List<String> frontqueue = getMatchList(frontsource, fronttarget);
-
-            String endsource = s1.substring(s1.indexOf(match) + match.length());
-            String endtarget = s2.substring(s2.indexOf(match) + match.length());
-            List<String> endqueue = getMatchList(endsource, endtarget);
+    /**
+     * Total length of the matching substrings: the longest common substring
+     * (the first one in s1, and its first occurrence in s2), then
+     * recursively the matches in the regions on either side of it.
+     *
+     * The regions are kept as index ranges on an explicit stack. Each region
+     * on the stack holds at least one character of each string, and the
+     * regions are disjoint, so the stack never holds more than
+     * min(n, m) regions.
+     */
+    private static int sumOfMatches(final String s1, final String s2,
+                                    final Workspace workspace) {
+        int[] stack = workspace.ints(STACK,
+                FRAME * (Math.min(s1.length(), s2.length()) + 1));
+        int top = push(stack, 0, 0, s1.length(), 0, s2.length());
+        int sum = 0;
+
+        while (top > 0) {
+            top -= FRAME;
+            int from1 = stack[top];
+            int to1 = stack[top + TO1];
+            int from2 = stack[top + FROM2];
+            int to2 = stack[top + TO2];
+
+            SuffixAutomaton automaton =
+                    workspace.suffixAutomaton(s2, from2, to2);
+            int length = automaton.longestMatch(s1, from1, to1);
+            if (length == 0) {
+                continue;
+            }
+            sum += length;
 
-            list.add(match);
-            list.addAll(frontqueue);
-            list.addAll(endqueue);
+            int start1 = automaton.matchStart();
+            int start2 = automaton.textStart();
+            top = push(stack, top, from1, start1, from2, start2);
+            top = push(stack, top, start1 + length, to1,
+                    start2 + length, to2);
         }
 
-        return list;
+        return sum;
     }
 
-    private static String frontMaxMatch(final String s1, final String s2) {
-        int longest = 0;
-        String longestsubstring = "";
-
-        for (int i = 0; i < s1.length(); ++i) {
-            for (int j = i + 1; j <= s1.length(); ++j) {
-                String substring = s1.substring(i, j);
-                if (s2.contains(substring) && substring.length() > longest) {
-                    longest = substring.length();
-                    longestsubstring = substring;
-                }
-            }
+    /**
+     * Push the region s1[from1, to1) and s2[from2, to2) if none of the
+     * ranges is empty.
+     * @return the new top of the stack
+     */
+    private static int push(final int[] stack, final int top,
+                            final int from1, final int to1,
+                            final int from2, final int to2) {
+        if (from1 >= to1 || from2 >= to2) {
+            return top;
         }
 
-        return longestsubstring;
+        stack[top] = from1;
+        stack[top + TO1] = to1;
+        stack[top + FROM2] = from2;
+        stack[top + TO2] = to2;
+        return top + FRAME;
     }
 }
@@ -25,10 +25,19 @@ package info.debatty.java.stringsimilarity;
 
 import net.jcip.annotations.Immutable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 /**
  * Abstract class for string similarities that rely on set operations (like
@@ -48,6 +57,13 @@ import java.util.regex.Pattern;
  * documents like e-mails, k = 5 is a recommended value. For large documents,
  * such as research articles, k = 9 is considered a safe choice.
  *
+ * The profile can be computed as a Map (getProfile), or as a compact
+ * ShingleProfile of primitive arrays (getShingleProfile), which is much
+ * cheaper to build and to compare. The compact profile can also be computed
+ * from a Reader, an InputStream or a channel, for documents that are too
+ * large to be loaded in memory. The compact profiles of frequently used
+ * strings can be kept in a ProfileCache.
+ *
  * @author Thibault Debatty
  */
 @Immutable
@@ -55,12 +71,24 @@ public abstract class ShingleBased {
 
     private static final int DEFAULT_K = 3;
 
-    private final int k;
+    /**
+     * Largest k for which a shingle can be packed in a long key.
+     */
+    private static final int MAX_PACKED_K = Long.SIZE / Character.SIZE;
+
+    // buffers of the workspace
+    private static final int TEXT = 0;
+    private static final int KEYS = 0;
+    private static final int CHUNK = 1;
 
     /**
-     * Pattern for finding multiple following spaces.
+     * Number of characters read at once from a stream.
      */
-    private static final Pattern SPACE_REG = Pattern.compile("\\s+");
+    private static final int CHUNK_SIZE = 8192;
+
+    private final int k;
+    private final ShingleHashing hashing;
+    private final ProfileCache cache;
 
     /**
      *
@@ -68,10 +96,40 @@ public abstract class ShingleBased {
      * @throws IllegalArgumentException if k is &lt;= 0
      */
     public ShingleBased(final int k) {
+        this(k, ShingleHashing.HASH);
+    }
+
+    /**
+     *
+     * @param k
+     * @param hashing how the keys of the compact profiles are computed
+     * @throws IllegalArgumentException if k is &lt;= 0
+     * @throws NullPointerException if hashing is null
+     */
+    public ShingleBased(final int k, final ShingleHashing hashing) {
+        this(k, hashing, null);
+    }
+
+    /**
+     *
+     * @param k
+     * @param hashing how the keys of the compact profiles are computed
+     * @param cache the cache of compact profiles (or null)
+     * @throws IllegalArgumentException if k is &lt;= 0
+     * @throws NullPointerException if hashing is null
+     */
+    public ShingleBased(final int k, final ShingleHashing hashing,
+                        final ProfileCache cache) {
         if (k <= 0) {
             throw new IllegalArgumentException("k should be positive!");
         }
+
+        if (hashing == null) {
+            throw new NullPointerException("hashing must not be null");
+        }
         this.k = k;
+        this.hashing = hashing;
+        this.cache = cache;
     }
 
     /**
@@ -90,6 +148,44 @@ public abstract class ShingleBased {
         return k;
     }
 
+    /**
+     * Return how the keys of the compact profiles are computed.
+     *
+     * @return the hashing mode
+     */
+    public final ShingleHashing getHashing() {
+        return hashing;
+    }
+
+    /**
+     * Check that the profiles of the store were computed with the same k and
+     * hashing mode as this metric.
+     * @param store
+     * @throws IllegalArgumentException if the store was built with another
+     * value of k, or another hashing mode
+     */
+    final void checkCompatible(final ProfileStore store) {
+        if (store.getK() != k) {
+            throw new IllegalArgumentException(
+                    "The store was built with another value of k");
+        }
+
+        if (!isPacked(k) && ShingleProfile.keyHashing(store.getHashing())
+                != ShingleProfile.keyHashing(hashing)) {
+            throw new IllegalArgumentException(
+                    "The store was built with another hashing mode");
+        }
+    }
+
+    /**
+     * Return the cache of compact profiles.
+     *
+     * @return the cache, or null if there is none
+     */
+    public final ProfileCache getCache() {
+        return cache;
+    }
+
     /**
      * Compute and return the profile of s, as defined by Ukkonen "Approximate
      * string-matching with q-grams and maximal matches".
@@ -104,7 +200,9 @@ public abstract class ShingleBased {
     public final Map<String, Integer> getProfile(final String string) {
         HashMap<String, Integer> shingles = new HashMap<String, Integer>();
 
-        String string_no_space = SPACE_REG.matcher(string).replaceAll(" ");
+        char[] text = new char[string.length()];
+        int length = collapseSpaces(string, text);
+        String string_no_space = new String(text, 0, length);
         for (int i = 0; i < (string_no_space.length() - k + 1); i++) {
             String shingle = string_no_space.substring(i, i + k);
             Integer old = shingles.get(shingle);
@@ -117,4 +215,219 @@ public abstract class ShingleBased {
 
         return Collections.unmodifiableMap(shingles);
     }
+
+    /**
+     * Compute the profile of s (the number of occurrences of each
+     * k-shingle), as a compact ShingleProfile.
+     *
+     * @param string
+     * @return the profile of this string
+     * @throws NullPointerException if string is null.
+     */
+    public final ShingleProfile getShingleProfile(final String string) {
+        if (string == null) {
+            throw new NullPointerException("string must not be null");
+        }
+
+        return getShingleProfile(string, Workspace.local());
+    }
+
+    /**
+     * Get the profile of s from the cache, or compute it using the buffers
+     * of the given workspace.
+     * @param string
+     * @param workspace
+     * @return the profile of this string
+     */
+    final ShingleProfile getShingleProfile(final String string,
+                                           final Workspace workspace) {
+        if (cache == null) {
+            return computeShingleProfile(string, workspace);
+        }
+
+        ShingleProfile profile = cache.get(k, hashing, string);
+        if (profile == null) {
+            profile = computeShingleProfile(string, workspace);
+            cache.put(string, profile);
+        }
+        return profile;
+    }
+
+    private ShingleProfile computeShingleProfile(final String string,
+                                                 final Workspace workspace) {
+        Shingler shingler = new Shingler(k, hashing);
+        if (hashing == ShingleHashing.VERIFIED_ROLLING_HASH) {
+            char[] text = workspace.chars(TEXT, string.length());
+            string.getChars(0, string.length(), text, 0);
+            ShingleCounter counter = new ShingleCounter(k, true);
+            count(shingler, counter, text, string.length());
+            return counter.toProfile(hashing);
+        }
+
+        long[] keys = workspace.longs(KEYS, string.length());
+        int shingles = 0;
+        for (int i = 0; i < string.length(); i++) {
+            if (shingler.push(string.charAt(i))) {
+                keys[shingles] = shingler.key();
+                shingles++;
+            }
+        }
+        Arrays.sort(keys, 0, shingles);
+
+        // count the occurrences of each distinct key
+        int distinct = 0;
+        for (int i = 0; i < shingles; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                distinct++;
+            }
+        }
+
+        long[] profile_keys = new long[distinct];
+        int[] profile_counts = new int[distinct];
+        int d = -1;
+        for (int i = 0; i < shingles; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                d++;
+                profile_keys[d] = keys[i];
+            }
+            profile_counts[d]++;
+        }
+
+        return new ShingleProfile(k, hashing, profile_keys, profile_counts);
+    }
+
+    /**
+     * Compute the profile of the text read from reader, as a compact
+     * ShingleProfile. The text is read by chunks, and the whitespace is
+     * collapsed on the fly, so the memory used is bounded by the size of the
+     * profile, and not by the length of the text. The result is the same as
+     * getShingleProfile(String) for the whole text. The reader is not closed.
+     *
+     * @param reader
+     * @return the profile of the text
+     * @throws IOException if the reader throws an IOException.
+     * @throws NullPointerException if reader is null.
+     */
+    public final ShingleProfile getShingleProfile(final Reader reader)
+            throws IOException {
+        if (reader == null) {
+            throw new NullPointerException("reader must not be null");
+        }
+
+        char[] chunk = Workspace.local().chars(CHUNK, CHUNK_SIZE);
+        Shingler shingler = new Shingler(k, hashing);
+        ShingleCounter counter = new ShingleCounter(
+                k, hashing == ShingleHashing.VERIFIED_ROLLING_HASH);
+
+        int read = reader.read(chunk, 0, CHUNK_SIZE);
+        while (read != -1) {
+            count(shingler, counter, chunk, read);
+            read = reader.read(chunk, 0, CHUNK_SIZE);
+        }
+
+        return counter.toProfile(hashing);
+    }
+
+    /**
+     * Compute the profile of the text read from stream, decoded with the
+     * given charset (malformed or unmappable input is replaced by the
+     * replacement character of the charset). See getShingleProfile(Reader).
+     * The stream is not closed.
+     *
+     * @param stream
+     * @param charset
+     * @return the profile of the text
+     * @throws IOException if the stream throws an IOException.
+     * @throws NullPointerException if stream or charset is null.
+     */
+    public final ShingleProfile getShingleProfile(
+            final InputStream stream, final Charset charset)
+            throws IOException {
+        return getShingleProfile(new InputStreamReader(stream, charset));
+    }
+
+    /**
+     * Compute the profile of the text read from channel, decoded with the
+     * given charset (malformed or unmappable input is replaced by the
+     * replacement character of the charset). See getShingleProfile(Reader).
+     * The channel is not closed.
+     *
+     * @param channel
+     * @param charset
+     * @return the profile of the text
+     * @throws IOException if the channel throws an IOException.
+     * @throws NullPointerException if channel or charset is null.
+     */
+    public final ShingleProfile getShingleProfile(
+            final ReadableByteChannel channel, final Charset charset)
+            throws IOException {
+        if (channel == null) {
+            throw new NullPointerException("channel must not be null");
+        }
+
+        // replace malformed input, like the InputStreamReader of
+        // getShingleProfile(InputStream, Charset)
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return getShingleProfile(Channels.newReader(channel, decoder, -1));
+    }
+
+    /**
+     * Shingles of length k are packed in a long (k &lt;= 4), and not
+     * hashed.
+     * @param k
+     * @return true if the shingles are packed
+     */
+    static boolean isPacked(final int k) {
+        return k <= MAX_PACKED_K;
+    }
+
+    /**
+     * Push text[0, length) to the shingler, and count the complete shingles.
+     */
+    private void count(final Shingler shingler, final ShingleCounter counter,
+                       final char[] text, final int length) {
+        char[] shingle = counter.shingleBuffer();
+        for (int i = 0; i < length; i++) {
+            if (!shingler.push(text[i])) {
+                continue;
+            }
+
+            if (shingle == null) {
+                counter.add(shingler.key());
+            } else {
+                shingler.shingle(shingle);
+                counter.add(shingler.key(), shingle);
+            }
+        }
+    }
+
+    /**
+     * Copy string to dest, replacing each run of whitespace characters
+     * (space, tab, new line, vertical tab, form feed or carriage return) by
+     * a single space, like the regular expression \s+.
+     * @param string
+     * @param dest array of length at least string.length()
+     * @return the number of characters written to dest
+     */
+    static int collapseSpaces(final String string, final char[] dest) {
+        int length = 0;
+        boolean space = false;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (Shingler.isSpace(c)) {
+                if (!space) {
+                    dest[length] = ' ';
+                    length++;
+                }
+                space = true;
+            } else {
+                dest[length] = c;
+                length++;
+                space = false;
+            }
+        }
+        return length;
+    }
 }
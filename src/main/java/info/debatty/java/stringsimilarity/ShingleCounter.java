@@ -0,0 +1,212 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash table that counts the occurrences of shingle keys,
+ * without boxing. The table grows with the number of distinct keys, so its
+ * size is bounded by the size of the profile, and not by the length of the
+ * text.
+ *
+ * To verify the keys, the counter can also keep a copy of the shingle of
+ * each distinct key, and compare it with each other occurrence of the key.
+ *
+ * @author Thibault Debatty
+ */
+final class ShingleCounter {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long HASH = 0x9E3779B97F4A7C15L;
+
+    private final int k;
+
+    private long[] keys;
+    // 0 marks an empty slot
+    private int[] counts;
+    private int shift;
+    private int size;
+
+    // when verifying: the index of the key in shingles, the shingle of each
+    // key, and a buffer for the shingle to add
+    private int[] ids;
+    private char[] shingles;
+    private final char[] shingle;
+
+    /**
+     * @param k the length of the shingles
+     * @param verify keep the shingles, to detect collisions
+     */
+    ShingleCounter(final int k, final boolean verify) {
+        this.k = k;
+        if (verify) {
+            shingles = new char[MIN_CAPACITY * k];
+            shingle = new char[k];
+        } else {
+            shingle = null;
+        }
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Buffer where the caller must copy the shingle before calling
+     * add(key, shingle), or null if the counter does not verify the keys.
+     * @return the buffer, or null
+     */
+    char[] shingleBuffer() {
+        return shingle;
+    }
+
+    /**
+     * Count one more occurrence of key.
+     * @param key
+     */
+    void add(final long key) {
+        add(key, null);
+    }
+
+    /**
+     * Count one more occurrence of key, and check that the key was never
+     * used for another shingle.
+     * @param key
+     * @param current_shingle the shingle of the key (or null if the counter
+     *                        does not verify the keys)
+     * @throws IllegalStateException if the key was used for another shingle
+     */
+    void add(final long key, final char[] current_shingle) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * HASH) >>> shift);
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                if (current_shingle != null) {
+                    verify(ids[slot], current_shingle);
+                }
+                counts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        counts[slot] = 1;
+        if (current_shingle != null) {
+            if (shingles.length < (size + 1) * k) {
+                shingles = Arrays.copyOf(shingles, 2 * shingles.length);
+            }
+            System.arraycopy(current_shingle, 0, shingles, size * k, k);
+            ids[slot] = size;
+        }
+        size++;
+
+        // keep the load factor below 1/2
+        if (2 * size > keys.length) {
+            rehash();
+        }
+    }
+
+    /**
+     * Number of distinct keys.
+     * @return the number of distinct keys
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Build the profile of the counted keys.
+     * @param hashing the hashing mode used to compute the keys
+     * @return the profile
+     */
+    ShingleProfile toProfile(final ShingleHashing hashing) {
+        long[] profile_keys = new long[size];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (counts[slot] != 0) {
+                profile_keys[n] = keys[slot];
+                n++;
+            }
+        }
+        Arrays.sort(profile_keys);
+
+        int[] profile_counts = new int[size];
+        for (int i = 0; i < size; i++) {
+            profile_counts[i] = count(profile_keys[i]);
+        }
+        return new ShingleProfile(k, hashing, profile_keys, profile_counts);
+    }
+
+    private void verify(final int id, final char[] current_shingle) {
+        for (int i = 0; i < k; i++) {
+            if (shingles[id * k + i] != current_shingle[i]) {
+                throw new IllegalStateException(
+                        "Hash collision between shingles \""
+                        + new String(shingles, id * k, k) + "\" and \""
+                        + new String(current_shingle) + "\"");
+            }
+        }
+    }
+
+    private int count(final long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * HASH) >>> shift);
+        while (keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return counts[slot];
+    }
+
+    private void rehash() {
+        long[] old_keys = keys;
+        int[] old_counts = counts;
+        int[] old_ids = ids;
+        allocate(2 * old_keys.length);
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < old_keys.length; i++) {
+            if (old_counts[i] == 0) {
+                continue;
+            }
+
+            int slot = (int) ((old_keys[i] * HASH) >>> shift);
+            while (counts[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = old_keys[i];
+            counts[slot] = old_counts[i];
+            if (old_ids != null) {
+                ids[slot] = old_ids[i];
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity];
+        if (shingle != null) {
+            ids = new int[capacity];
+        }
+        shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    }
+}
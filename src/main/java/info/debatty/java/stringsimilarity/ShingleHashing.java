@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+/**
+ * How the keys of the shingles are computed in a ShingleProfile, when the
+ * shingles are longer than 4 characters (shorter shingles are always packed
+ * in their key, so their profile is exact).
+ *
+ * @author Thibault Debatty
+ */
+public enum ShingleHashing {
+
+    /**
+     * Each shingle is hashed separately with a 64-bit hash function (FNV-1a
+     * followed by the MurmurHash3 finalizer), which costs O(k) per shingle.
+     * Two different shingles get the same key with a probability of about
+     * 2^-64.
+     */
+    HASH,
+
+    /**
+     * The key of each shingle is computed in O(1) from the key of the
+     * previous shingle, with a Rabin-Karp polynomial hash modulo the prime
+     * 2^61 - 1. This is much faster for large k (document-level shingles).
+     * Two different shingles of length k get the same key with a probability
+     * of at most (k - 1) / (2^61 - 1) for a random base. The base is fixed,
+     * so colliding shingles can be crafted: use VERIFIED_ROLLING_HASH to
+     * detect collisions if the input is not trusted.
+     */
+    ROLLING_HASH,
+
+    /**
+     * Same keys as ROLLING_HASH, but each distinct key also keeps a copy of
+     * its shingle, and each occurrence of the key is compared to this copy.
+     * A collision inside a profile thus throws an IllegalStateException.
+     * Collisions between shingles of different profiles can not be detected.
+     * This doubles the memory used while building a profile.
+     */
+    VERIFIED_ROLLING_HASH
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Compact profile of a string: the number of occurrences of each k-shingle,
+ * stored as a sorted array of long keys and an array of counts.
+ *
+ * When a shingle fits in 64 bits (k &lt;= 4), its key is the shingle itself,
+ * packed 16 bits per character, so the profile is exact. Longer shingles
+ * are represented by a 64-bit hash: two different shingles may thus get the
+ * same key (see ShingleHashing), in which case they are counted as the same
+ * shingle.
+ *
+ * Profiles are built by ShingleBased.getShingleProfile(String), and are
+ * compared by a linear merge of the keys, without hashing nor boxing.
+ * Profiles built by metrics with different values of k, or with different
+ * hashing modes (for k &gt; 4), can not be compared.
+ *
+ * @author Thibault Debatty
+ */
+@Immutable
+public final class ShingleProfile {
+
+    private final int k;
+    private final ShingleHashing hashing;
+    private final long[] keys;
+    private final int[] counts;
+
+    /**
+     * @param k
+     * @param hashing
+     * @param keys the sorted distinct keys (not copied)
+     * @param counts the number of occurrences of each key (not copied)
+     */
+    ShingleProfile(final int k, final ShingleHashing hashing,
+                   final long[] keys, final int[] counts) {
+        this.k = k;
+        this.hashing = keyHashing(hashing);
+        this.keys = keys;
+        this.counts = counts;
+    }
+
+    /**
+     * Return k, the length of the shingles.
+     * @return the length of the shingles
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * How the keys of the shingles were computed (ROLLING_HASH for profiles
+     * built with VERIFIED_ROLLING_HASH, as the keys are the same).
+     * @return the hashing mode
+     */
+    public ShingleHashing getHashing() {
+        return hashing;
+    }
+
+    /**
+     * Number of distinct shingles.
+     * @return the number of distinct shingles
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * The keys are the shingles themselves (k &lt;= 4), and not hashes.
+     * @return true if the profile is exact
+     */
+    public boolean isExact() {
+        return ShingleBased.isPacked(k);
+    }
+
+    /**
+     * The sorted keys. The array must not be modified.
+     */
+    long[] keys() {
+        return keys;
+    }
+
+    /**
+     * The counts. The array must not be modified.
+     */
+    int[] counts() {
+        return counts;
+    }
+
+    /**
+     * Check that this profile was built by a metric with the given k and
+     * hashing mode.
+     * @param other_k
+     * @param other_hashing
+     * @return true if the profile has the same keys as the profiles built by
+     * the metric
+     */
+    boolean isCompatible(final int other_k,
+                         final ShingleHashing other_hashing) {
+        return other_k == k
+                && (isExact() || keyHashing(other_hashing) == hashing);
+    }
+
+    /**
+     * Check that this profile can be compared with the other one.
+     * @param other
+     * @throws IllegalArgumentException if the profiles were built with
+     * different values of k, or different hashing modes
+     */
+    void checkCompatible(final ShingleProfile other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException(
+                    "Profiles were built with different values of k");
+        }
+
+        if (!isCompatible(other.k, other.hashing)) {
+            throw new IllegalArgumentException(
+                    "Profiles were built with different hashing modes");
+        }
+    }
+
+    /**
+     * The hashing mode that gives the same keys (VERIFIED_ROLLING_HASH gives
+     * the same keys as ROLLING_HASH).
+     */
+    static ShingleHashing keyHashing(final ShingleHashing hashing) {
+        if (hashing == ShingleHashing.VERIFIED_ROLLING_HASH) {
+            return ShingleHashing.ROLLING_HASH;
+        }
+        return hashing;
+    }
+}
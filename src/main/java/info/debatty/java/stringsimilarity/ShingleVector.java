@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Sparse vector representation of the profile of a string: the sorted ids
+ * of its shingles in a ShingleVocabulary, and the number of occurrences of
+ * each shingle.
+ *
+ * Vectors are created by ShingleVocabulary.vector, and can only be compared
+ * with vectors of the same vocabulary.
+ *
+ * @author Thibault Debatty
+ */
+@Immutable
+public final class ShingleVector {
+
+    private final ShingleVocabulary vocabulary;
+    private final int[] ids;
+    private final int[] counts;
+
+    /**
+     * @param vocabulary
+     * @param ids the sorted ids of the shingles (not copied)
+     * @param counts the number of occurrences of each shingle (not copied)
+     */
+    ShingleVector(final ShingleVocabulary vocabulary, final int[] ids,
+                  final int[] counts) {
+        this.vocabulary = vocabulary;
+        this.ids = ids;
+        this.counts = counts;
+    }
+
+    /**
+     * Number of distinct shingles.
+     * @return the number of distinct shingles
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * The vocabulary that assigned the ids of this vector.
+     * @return the vocabulary
+     */
+    public ShingleVocabulary getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * The sorted ids. The array must not be modified.
+     */
+    int[] ids() {
+        return ids;
+    }
+
+    /**
+     * The counts. The array must not be modified.
+     */
+    int[] counts() {
+        return counts;
+    }
+
+    /**
+     * Check that this vector can be compared with the other one.
+     * @param other
+     * @throws IllegalArgumentException if the vectors come from different
+     * vocabularies
+     */
+    void checkCompatible(final ShingleVector other) {
+        if (other.vocabulary != vocabulary) {
+            throw new IllegalArgumentException(
+                    "Vectors come from different vocabularies");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Vocabulary of shingles, shared by a corpus of strings: each distinct
+ * shingle gets a dense integer id (0, 1, 2...) the first time it is seen.
+ *
+ * The profile of each string can then be converted into a ShingleVector,
+ * which holds only the sorted ids and the counts of its shingles (8 bytes per
+ * shingle, instead of a map entry, a boxed count and a String). Vectors are
+ * compared by Cosine, Jaccard, SorensenDice and QGram with a linear merge of
+ * the ids, which is much faster than hash lookups for one-to-many and
+ * many-to-many comparisons.
+ *
+ * The vocabulary can be used by multiple threads: looking up a known shingle
+ * does not lock, and only new shingles are added under a lock. Vectors can
+ * only be compared with vectors from the same vocabulary.
+ *
+ * @author Thibault Debatty
+ */
+@ThreadSafe
+public final class ShingleVocabulary {
+
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    private final ConcurrentHashMap<String, Integer> ids =
+            new ConcurrentHashMap<String, Integer>();
+
+    /**
+     * Get the id of a shingle, and add it to the vocabulary if needed.
+     * @param shingle
+     * @return the id of the shingle
+     * @throws NullPointerException if shingle is null.
+     */
+    public int id(final String shingle) {
+        Integer id = ids.get(shingle);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (this) {
+            id = ids.get(shingle);
+            if (id == null) {
+                id = ids.size();
+                ids.put(shingle, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Number of shingles in the vocabulary.
+     * @return the number of shingles
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Convert a profile (as computed by ShingleBased.getProfile) to a sparse
+     * vector. The shingles of the profile that are not yet in the vocabulary
+     * are added.
+     * @param profile
+     * @return the sparse vector of the profile
+     * @throws NullPointerException if profile is null.
+     */
+    public ShingleVector vector(final Map<String, Integer> profile) {
+        // sort (id, count) pairs packed in longs, to avoid boxing
+        long[] pairs = new long[profile.size()];
+        int size = 0;
+        for (Map.Entry<String, Integer> entry : profile.entrySet()) {
+            long id = id(entry.getKey());
+            pairs[size] = (id << Integer.SIZE)
+                    | (entry.getValue() & COUNT_MASK);
+            size++;
+        }
+        Arrays.sort(pairs);
+
+        int[] vector_ids = new int[size];
+        int[] vector_counts = new int[size];
+        for (int i = 0; i < size; i++) {
+            vector_ids[i] = (int) (pairs[i] >>> Integer.SIZE);
+            vector_counts[i] = (int) pairs[i];
+        }
+        return new ShingleVector(this, vector_ids, vector_counts);
+    }
+
+    /**
+     * Compute the profile of a string, and convert it to a sparse vector.
+     * @param shingling the metric used to compute the profile
+     * @param string
+     * @return the sparse vector of the string
+     * @throws NullPointerException if shingling or string is null.
+     */
+    public ShingleVector vector(final ShingleBased shingling,
+                                final String string) {
+        return vector(shingling.getProfile(string));
+    }
+}
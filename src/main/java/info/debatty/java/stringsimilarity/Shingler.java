@@ -0,0 +1,206 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+/**
+ * Sliding window over a text, that collapses runs of whitespace into a single
+ * space (like the regular expression \s+), and computes the key of each
+ * k-shingle. The characters are pushed one at a time, so the text can come
+ * from a String or from a stream.
+ *
+ * Shingles of up to 4 characters are packed in their key. Longer shingles
+ * are hashed, either separately or with a rolling hash (see ShingleHashing).
+ *
+ * @author Thibault Debatty
+ */
+final class Shingler {
+
+    // 64-bit FNV-1a, followed by the finalizer of MurmurHash3
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long MIX1 = 0xff51afd7ed558ccdL;
+    private static final long MIX2 = 0xc4ceb9fe1a85ec53L;
+    private static final int MIX_SHIFT = 33;
+
+    // Rabin-Karp modulo the Mersenne prime 2^61 - 1
+    private static final int MOD_BITS = 61;
+    private static final long MOD = (1L << MOD_BITS) - 1;
+    private static final long BASE = 0x0B873593CC9E2D51L;
+    private static final int LOW_BITS = 31;
+    private static final int MID_BITS = 30;
+    private static final long LOW_MASK = (1L << LOW_BITS) - 1;
+    private static final long MID_MASK = (1L << MID_BITS) - 1;
+
+    private final int k;
+    private final boolean packed;
+    private final boolean rolling;
+    private final long packed_mask;
+
+    // BASE^(k - 1) mod MOD
+    private final long power;
+
+    // the last k characters, the oldest at position head
+    private final char[] window;
+    private int head;
+    private int length;
+    private boolean space;
+    private long key;
+
+    /**
+     * @param k
+     * @param hashing
+     */
+    Shingler(final int k, final ShingleHashing hashing) {
+        this.k = k;
+        this.packed = ShingleBased.isPacked(k);
+        this.rolling = hashing != ShingleHashing.HASH;
+        this.window = new char[k];
+
+        long mask = -1L;
+        if (k * Character.SIZE < Long.SIZE) {
+            mask = (1L << (k * Character.SIZE)) - 1;
+        }
+        this.packed_mask = mask;
+
+        long p = 1;
+        for (int i = 1; i < k; i++) {
+            p = multiply(p, BASE);
+        }
+        this.power = p;
+    }
+
+    /**
+     * Push the next character of the text.
+     * @param c
+     * @return true if a new shingle is complete (its key is given by key())
+     */
+    boolean push(final char c) {
+        char in = c;
+        if (isSpace(c)) {
+            if (space) {
+                return false;
+            }
+            in = ' ';
+            space = true;
+        } else {
+            space = false;
+        }
+
+        char out = window[head];
+        window[head] = in;
+        head++;
+        if (head == k) {
+            head = 0;
+        }
+
+        if (packed) {
+            key = ((key << Character.SIZE) | in) & packed_mask;
+        } else if (rolling) {
+            if (length == k) {
+                key -= multiply(out, power);
+                if (key < 0) {
+                    key += MOD;
+                }
+            }
+            key = reduce(multiply(key, BASE) + in);
+        }
+
+        if (length < k) {
+            length++;
+        }
+
+        if (length < k) {
+            return false;
+        }
+
+        if (!packed && !rolling) {
+            key = hash();
+        }
+        return true;
+    }
+
+    /**
+     * The key of the last complete shingle.
+     * @return the key
+     */
+    long key() {
+        return key;
+    }
+
+    /**
+     * Copy the last complete shingle to dest.
+     * @param dest array of length at least k
+     */
+    void shingle(final char[] dest) {
+        System.arraycopy(window, head, dest, 0, k - head);
+        System.arraycopy(window, 0, dest, k - head, head);
+    }
+
+    private long hash() {
+        long hash = FNV_OFFSET;
+        for (int i = head; i < k; i++) {
+            hash = (hash ^ window[i]) * FNV_PRIME;
+        }
+        for (int i = 0; i < head; i++) {
+            hash = (hash ^ window[i]) * FNV_PRIME;
+        }
+        hash = (hash ^ (hash >>> MIX_SHIFT)) * MIX1;
+        hash = (hash ^ (hash >>> MIX_SHIFT)) * MIX2;
+        return hash ^ (hash >>> MIX_SHIFT);
+    }
+
+    /**
+     * a * b mod 2^61 - 1, for a and b smaller than 2^61 - 1.
+     */
+    private static long multiply(final long a, final long b) {
+        long a_high = a >>> LOW_BITS;
+        long a_low = a & LOW_MASK;
+        long b_high = b >>> LOW_BITS;
+        long b_low = b & LOW_MASK;
+        long mid = a_low * b_high + a_high * b_low;
+        return reduce((a_high * b_high << 1) + (mid >>> MID_BITS)
+                + ((mid & MID_MASK) << LOW_BITS) + a_low * b_low);
+    }
+
+    /**
+     * x mod 2^61 - 1, for x (unsigned) smaller than 2^64.
+     */
+    private static long reduce(final long x) {
+        long r = (x & MOD) + (x >>> MOD_BITS);
+        if (r >= MOD) {
+            r -= MOD;
+        }
+        return r;
+    }
+
+    /**
+     * Whitespace characters, as matched by \s in a regular expression.
+     * @param c
+     * @return true if c is a whitespace character
+     */
+    static boolean isSpace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B'
+                || c == '\f' || c == '\r';
+    }
+}
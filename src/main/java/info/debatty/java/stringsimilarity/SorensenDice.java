@@ -25,9 +25,6 @@ package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.interfaces.NormalizedStringSimilarity;
 import info.debatty.java.stringsimilarity.interfaces.NormalizedStringDistance;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 
 import net.jcip.annotations.Immutable;
 
@@ -56,6 +53,30 @@ public class SorensenDice extends ShingleBased implements
         super(k);
     }
 
+    /**
+     * Same as SorensenDice(k), with the given hashing mode for the compact
+     * profiles (see ShingleHashing).
+     *
+     * @param k
+     * @param hashing
+     */
+    public SorensenDice(final int k, final ShingleHashing hashing) {
+        super(k, hashing);
+    }
+
+    /**
+     * Same as SorensenDice(k, hashing), with a cache of the compact profiles
+     * of the strings (see ProfileCache).
+     *
+     * @param k
+     * @param hashing
+     * @param cache
+     */
+    public SorensenDice(final int k, final ShingleHashing hashing,
+            final ProfileCache cache) {
+        super(k, hashing, cache);
+    }
+
     /**
      * Sorensen-Dice coefficient, aka Sørensen index, Dice's coefficient or
      * Czekanowski's binary (non-quantitative) index.
@@ -90,20 +111,28 @@ public class SorensenDice extends ShingleBased implements
             return 1;
         }
 
-        Map<String, Integer> profile1 = getProfile(s1);
-        Map<String, Integer> profile2 = getProfile(s2);
-
-        Set<String> union = new HashSet<String>();
-        union.addAll(profile1.keySet());
-        union.addAll(profile2.keySet());
+        Workspace workspace = Workspace.local();
+        return similarity(getShingleProfile(s1, workspace),
+                getShingleProfile(s2, workspace));
+    }
 
-        int inter = 0;
+    /**
+     * Compute Sorensen-Dice similarity between precomputed compact profiles.
+     *
+     * @param profile1
+     * @param profile2
+     * @return The computed Sorensen-Dice similarity.
+     * @throws NullPointerException if profile1 or profile2 is null.
+     * @throws IllegalArgumentException if the profiles were built with
+     * different values of k.
+     */
+    public final double similarity(
+            final ShingleProfile profile1,
+            final ShingleProfile profile2) {
+        profile1.checkCompatible(profile2);
 
-        for (String key : union) {
-            if (profile1.containsKey(key) && profile2.containsKey(key)) {
-                inter++;
-            }
-        }
+        int inter = SortedMerge.intersection(
+                profile1.keys(), profile2.keys());
 
         return 2.0 * inter / (profile1.size() + profile2.size());
     }
@@ -119,4 +148,74 @@ public class SorensenDice extends ShingleBased implements
     public final double distance(final String s1, final String s2) {
         return 1 - similarity(s1, s2);
     }
+
+    /**
+     * Compute Sorensen-Dice similarity between sparse vectors of the same
+     * vocabulary.
+     *
+     * @param vector1
+     * @param vector2
+     * @return The computed Sorensen-Dice similarity.
+     * @throws NullPointerException if vector1 or vector2 is null.
+     * @throws IllegalArgumentException if the vectors come from different
+     * vocabularies.
+     */
+    public final double similarity(
+            final ShingleVector vector1,
+            final ShingleVector vector2) {
+        vector1.checkCompatible(vector2);
+
+        int inter = SortedMerge.intersection(vector1.ids(), vector2.ids());
+
+        return 2.0 * inter / (vector1.size() + vector2.size());
+    }
+
+    /**
+     * Compute Sorensen-Dice similarity between two profiles of a store, read
+     * directly from the mapped file.
+     *
+     * @param store
+     * @param i index of the first profile
+     * @param j index of the second profile
+     * @return The computed Sorensen-Dice similarity.
+     * @throws NullPointerException if store is null.
+     * @throws IndexOutOfBoundsException if there is no profile i or j.
+     * @throws IllegalArgumentException if the store was built with another
+     * value of k or another hashing mode than this metric.
+     */
+    public final double similarity(
+            final ProfileStore store, final int i, final int j) {
+        checkCompatible(store);
+        Workspace workspace = Workspace.local();
+        ProfileCursor cursor1 = workspace.cursor(0, store, i);
+        ProfileCursor cursor2 = workspace.cursor(1, store, j);
+        int inter = SortedMerge.intersection(cursor1, cursor2);
+
+        return 2.0 * inter / (cursor1.size() + cursor2.size());
+    }
+
+    /**
+     * Compute Sorensen-Dice similarity between a compact profile and a
+     * profile of a store, read directly from the mapped file.
+     *
+     * @param profile
+     * @param store
+     * @param i index of the stored profile
+     * @return The computed Sorensen-Dice similarity.
+     * @throws NullPointerException if profile or store is null.
+     * @throws IndexOutOfBoundsException if there is no profile i.
+     * @throws IllegalArgumentException if the profile or the store was
+     * built with another value of k or another hashing mode than this
+     * metric.
+     */
+    public final double similarity(
+            final ShingleProfile profile, final ProfileStore store,
+            final int i) {
+        checkCompatible(store);
+        store.checkCompatible(profile);
+        ProfileCursor cursor = Workspace.local().cursor(0, store, i);
+        int inter = SortedMerge.intersection(profile.keys(), cursor);
+
+        return 2.0 * inter / (profile.size() + cursor.size());
+    }
 }
@@ -0,0 +1,648 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+/**
+ * Comparison of sparse vectors stored as sorted arrays of distinct keys and
+ * the corresponding counts. All the methods walk both arrays in a single
+ * linear merge, and do not allocate memory. The same methods exist for long
+ * keys (ShingleProfile), int keys (ShingleVector) and profiles read from a
+ * ProfileStore (ProfileCursor).
+ *
+ * When one array is much shorter than the other (a short query compared to
+ * a long document), the intersection and the dot product instead take each
+ * key of the short array in turn, and find it in the long array with a
+ * galloping (exponential) search that starts at the previous match. The
+ * stored profiles are delta encoded, so they can only be read sequentially,
+ * and the L1 distance needs all the counts of both vectors: these are always
+ * computed with the linear merge.
+ *
+ * @author Thibault Debatty
+ */
+final class SortedMerge {
+
+    /**
+     * Galloping is used when an array is this many times longer than the
+     * other.
+     */
+    static final int GALLOP_RATIO = 8;
+
+    private SortedMerge() {
+    }
+
+    /**
+     * Number of keys that appear in both arrays.
+     * @param keys1
+     * @param keys2
+     * @return the size of the intersection
+     */
+    static int intersection(final long[] keys1, final long[] keys2) {
+        if (isSkewed(keys1.length, keys2.length)) {
+            return gallopIntersection(keys1, keys2);
+        }
+
+        if (isSkewed(keys2.length, keys1.length)) {
+            return gallopIntersection(keys2, keys1);
+        }
+
+        int i1 = 0;
+        int i2 = 0;
+        int inter = 0;
+        while (i1 < keys1.length && i2 < keys2.length) {
+            long key1 = keys1[i1];
+            long key2 = keys2[i2];
+            if (key1 < key2) {
+                i1++;
+            } else if (key1 > key2) {
+                i2++;
+            } else {
+                inter++;
+                i1++;
+                i2++;
+            }
+        }
+        return inter;
+    }
+
+    /**
+     * Dot product of the vectors.
+     * @param keys1
+     * @param counts1
+     * @param keys2
+     * @param counts2
+     * @return the dot product
+     */
+    static double dotProduct(
+            final long[] keys1, final int[] counts1,
+            final long[] keys2, final int[] counts2) {
+        if (isSkewed(keys1.length, keys2.length)) {
+            return gallopDotProduct(keys1, counts1, keys2, counts2);
+        }
+
+        if (isSkewed(keys2.length, keys1.length)) {
+            return gallopDotProduct(keys2, counts2, keys1, counts1);
+        }
+
+        int i1 = 0;
+        int i2 = 0;
+        double agg = 0;
+        while (i1 < keys1.length && i2 < keys2.length) {
+            long key1 = keys1[i1];
+            long key2 = keys2[i2];
+            if (key1 < key2) {
+                i1++;
+            } else if (key1 > key2) {
+                i2++;
+            } else {
+                agg += 1.0 * counts1[i1] * counts2[i2];
+                i1++;
+                i2++;
+            }
+        }
+        return agg;
+    }
+
+    /**
+     * L1 norm of the difference of the vectors.
+     * @param keys1
+     * @param counts1
+     * @param keys2
+     * @param counts2
+     * @return the L1 distance
+     */
+    static long l1Distance(
+            final long[] keys1, final int[] counts1,
+            final long[] keys2, final int[] counts2) {
+        int i1 = 0;
+        int i2 = 0;
+        long agg = 0;
+        while (i1 < keys1.length && i2 < keys2.length) {
+            long key1 = keys1[i1];
+            long key2 = keys2[i2];
+            if (key1 < key2) {
+                agg += counts1[i1];
+                i1++;
+            } else if (key1 > key2) {
+                agg += counts2[i2];
+                i2++;
+            } else {
+                agg += Math.abs(counts1[i1] - counts2[i2]);
+                i1++;
+                i2++;
+            }
+        }
+
+        for (; i1 < keys1.length; i1++) {
+            agg += counts1[i1];
+        }
+        for (; i2 < keys2.length; i2++) {
+            agg += counts2[i2];
+        }
+        return agg;
+    }
+
+    /**
+     * Number of keys that appear in both arrays.
+     * @param keys1
+     * @param keys2
+     * @return the size of the intersection
+     */
+    static int intersection(final int[] keys1, final int[] keys2) {
+        if (isSkewed(keys1.length, keys2.length)) {
+            return gallopIntersection(keys1, keys2);
+        }
+
+        if (isSkewed(keys2.length, keys1.length)) {
+            return gallopIntersection(keys2, keys1);
+        }
+
+        int i1 = 0;
+        int i2 = 0;
+        int inter = 0;
+        while (i1 < keys1.length && i2 < keys2.length) {
+            int key1 = keys1[i1];
+            int key2 = keys2[i2];
+            if (key1 < key2) {
+                i1++;
+            } else if (key1 > key2) {
+                i2++;
+            } else {
+                inter++;
+                i1++;
+                i2++;
+            }
+        }
+        return inter;
+    }
+
+    /**
+     * Dot product of the vectors.
+     * @param keys1
+     * @param counts1
+     * @param keys2
+     * @param counts2
+     * @return the dot product
+     */
+    static double dotProduct(
+            final int[] keys1, final int[] counts1,
+            final int[] keys2, final int[] counts2) {
+        if (isSkewed(keys1.length, keys2.length)) {
+            return gallopDotProduct(keys1, counts1, keys2, counts2);
+        }
+
+        if (isSkewed(keys2.length, keys1.length)) {
+            return gallopDotProduct(keys2, counts2, keys1, counts1);
+        }
+
+        int i1 = 0;
+        int i2 = 0;
+        double agg = 0;
+        while (i1 < keys1.length && i2 < keys2.length) {
+            int key1 = keys1[i1];
+            int key2 = keys2[i2];
+            if (key1 < key2) {
+                i1++;
+            } else if (key1 > key2) {
+                i2++;
+            } else {
+                agg += 1.0 * counts1[i1] * counts2[i2];
+                i1++;
+                i2++;
+            }
+        }
+        return agg;
+    }
+
+    /**
+     * L1 norm of the difference of the vectors.
+     * @param keys1
+     * @param counts1
+     * @param keys2
+     * @param counts2
+     * @return the L1 distance
+     */
+    static long l1Distance(
+            final int[] keys1, final int[] counts1,
+            final int[] keys2, final int[] counts2) {
+        int i1 = 0;
+        int i2 = 0;
+        long agg = 0;
+        while (i1 < keys1.length && i2 < keys2.length) {
+            int key1 = keys1[i1];
+            int key2 = keys2[i2];
+            if (key1 < key2) {
+                agg += counts1[i1];
+                i1++;
+            } else if (key1 > key2) {
+                agg += counts2[i2];
+                i2++;
+            } else {
+                agg += Math.abs(counts1[i1] - counts2[i2]);
+                i1++;
+                i2++;
+            }
+        }
+
+        for (; i1 < keys1.length; i1++) {
+            agg += counts1[i1];
+        }
+        for (; i2 < keys2.length; i2++) {
+            agg += counts2[i2];
+        }
+        return agg;
+    }
+
+    /**
+     * Number of keys that appear in both arrays, by galloping in the large
+     * array.
+     */
+    private static int gallopIntersection(
+            final long[] small, final long[] large) {
+        int i2 = 0;
+        int inter = 0;
+        for (long key : small) {
+            i2 = gallop(large, i2, key);
+            if (i2 == large.length) {
+                break;
+            }
+
+            if (large[i2] == key) {
+                inter++;
+                i2++;
+            }
+        }
+        return inter;
+    }
+
+    /**
+     * Dot product of the vectors, by galloping in the large array.
+     */
+    private static double gallopDotProduct(
+            final long[] small_keys, final int[] small_counts,
+            final long[] large_keys, final int[] large_counts) {
+        int i2 = 0;
+        double agg = 0;
+        for (int i1 = 0; i1 < small_keys.length; i1++) {
+            i2 = gallop(large_keys, i2, small_keys[i1]);
+            if (i2 == large_keys.length) {
+                break;
+            }
+
+            if (large_keys[i2] == small_keys[i1]) {
+                agg += 1.0 * small_counts[i1] * large_counts[i2];
+                i2++;
+            }
+        }
+        return agg;
+    }
+
+    /**
+     * Index of the first key of keys[from, length) that is not smaller than
+     * key (or keys.length if there is none): the range is first bounded by
+     * steps of 1, 2, 4... then searched by bisection.
+     * @param keys
+     * @param from
+     * @param key
+     * @return the index of the first key &gt;= key
+     */
+    static int gallop(final long[] keys, final int from, final long key) {
+        int lo = from;
+        int hi = from;
+        int step = 1;
+        // keys[lo - 1] < key, and keys[hi] >= key if hi < length
+        while (hi < keys.length && keys[hi] < key) {
+            lo = hi + 1;
+            if (step > keys.length - hi) {
+                hi = keys.length;
+            } else {
+                hi += step;
+            }
+            step <<= 1;
+        }
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Number of keys that appear in both arrays, by galloping in the large
+     * array.
+     */
+    private static int gallopIntersection(
+            final int[] small, final int[] large) {
+        int i2 = 0;
+        int inter = 0;
+        for (int key : small) {
+            i2 = gallop(large, i2, key);
+            if (i2 == large.length) {
+                break;
+            }
+
+            if (large[i2] == key) {
+                inter++;
+                i2++;
+            }
+        }
+        return inter;
+    }
+
+    /**
+     * Dot product of the vectors, by galloping in the large array.
+     */
+    private static double gallopDotProduct(
+            final int[] small_keys, final int[] small_counts,
+            final int[] large_keys, final int[] large_counts) {
+        int i2 = 0;
+        double agg = 0;
+        for (int i1 = 0; i1 < small_keys.length; i1++) {
+            i2 = gallop(large_keys, i2, small_keys[i1]);
+            if (i2 == large_keys.length) {
+                break;
+            }
+
+            if (large_keys[i2] == small_keys[i1]) {
+                agg += 1.0 * small_counts[i1] * large_counts[i2];
+                i2++;
+            }
+        }
+        return agg;
+    }
+
+    /**
+     * Index of the first key of keys[from, length) that is not smaller than
+     * key (or keys.length if there is none): the range is first bounded by
+     * steps of 1, 2, 4... then searched by bisection.
+     * @param keys
+     * @param from
+     * @param key
+     * @return the index of the first key &gt;= key
+     */
+    static int gallop(final int[] keys, final int from, final int key) {
+        int lo = from;
+        int hi = from;
+        int step = 1;
+        // keys[lo - 1] < key, and keys[hi] >= key if hi < length
+        while (hi < keys.length && keys[hi] < key) {
+            lo = hi + 1;
+            if (step > keys.length - hi) {
+                hi = keys.length;
+            } else {
+                hi += step;
+            }
+            step <<= 1;
+        }
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * The small array is so much smaller than the large one that it is
+     * faster to search each of its keys in the large array (about
+     * 2.log2(large / small) comparisons per key) than to walk both arrays.
+     */
+    private static boolean isSkewed(final int small, final int large) {
+        return (long) small * GALLOP_RATIO < large;
+    }
+
+    /**
+     * Number of keys that appear in both the array and the stored profile.
+     * @param keys1
+     * @param cursor2
+     * @return the size of the intersection
+     */
+    static int intersection(final long[] keys1, final ProfileCursor cursor2) {
+        int i1 = 0;
+        boolean more2 = cursor2.next();
+        int inter = 0;
+        while (i1 < keys1.length && more2) {
+            long key1 = keys1[i1];
+            long key2 = cursor2.key();
+            if (key1 < key2) {
+                i1++;
+            } else if (key1 > key2) {
+                more2 = cursor2.next();
+            } else {
+                inter++;
+                i1++;
+                more2 = cursor2.next();
+            }
+        }
+        return inter;
+    }
+
+    /**
+     * Number of keys that appear in both stored profiles.
+     * @param cursor1
+     * @param cursor2
+     * @return the size of the intersection
+     */
+    static int intersection(final ProfileCursor cursor1,
+                            final ProfileCursor cursor2) {
+        boolean more1 = cursor1.next();
+        boolean more2 = cursor2.next();
+        int inter = 0;
+        while (more1 && more2) {
+            long key1 = cursor1.key();
+            long key2 = cursor2.key();
+            if (key1 < key2) {
+                more1 = cursor1.next();
+            } else if (key1 > key2) {
+                more2 = cursor2.next();
+            } else {
+                inter++;
+                more1 = cursor1.next();
+                more2 = cursor2.next();
+            }
+        }
+        return inter;
+    }
+
+    /**
+     * Dot product of the vector and the stored profile.
+     * @param keys1
+     * @param counts1
+     * @param cursor2
+     * @return the dot product
+     */
+    static double dotProduct(
+            final long[] keys1, final int[] counts1,
+            final ProfileCursor cursor2) {
+        int i1 = 0;
+        boolean more2 = cursor2.next();
+        double agg = 0;
+        while (i1 < keys1.length && more2) {
+            long key1 = keys1[i1];
+            long key2 = cursor2.key();
+            if (key1 < key2) {
+                i1++;
+            } else if (key1 > key2) {
+                more2 = cursor2.next();
+            } else {
+                agg += 1.0 * counts1[i1] * cursor2.count();
+                i1++;
+                more2 = cursor2.next();
+            }
+        }
+        return agg;
+    }
+
+    /**
+     * Dot product of the stored profiles.
+     * @param cursor1
+     * @param cursor2
+     * @return the dot product
+     */
+    static double dotProduct(final ProfileCursor cursor1,
+                             final ProfileCursor cursor2) {
+        boolean more1 = cursor1.next();
+        boolean more2 = cursor2.next();
+        double agg = 0;
+        while (more1 && more2) {
+            long key1 = cursor1.key();
+            long key2 = cursor2.key();
+            if (key1 < key2) {
+                more1 = cursor1.next();
+            } else if (key1 > key2) {
+                more2 = cursor2.next();
+            } else {
+                agg += 1.0 * cursor1.count() * cursor2.count();
+                more1 = cursor1.next();
+                more2 = cursor2.next();
+            }
+        }
+        return agg;
+    }
+
+    /**
+     * L1 norm of the difference of the vector and the stored profile.
+     * @param keys1
+     * @param counts1
+     * @param cursor2
+     * @return the L1 distance
+     */
+    static long l1Distance(
+            final long[] keys1, final int[] counts1,
+            final ProfileCursor cursor2) {
+        int i1 = 0;
+        boolean more2 = cursor2.next();
+        long agg = 0;
+        while (i1 < keys1.length && more2) {
+            long key1 = keys1[i1];
+            long key2 = cursor2.key();
+            if (key1 < key2) {
+                agg += counts1[i1];
+                i1++;
+            } else if (key1 > key2) {
+                agg += cursor2.count();
+                more2 = cursor2.next();
+            } else {
+                agg += Math.abs(counts1[i1] - cursor2.count());
+                i1++;
+                more2 = cursor2.next();
+            }
+        }
+
+        for (; i1 < keys1.length; i1++) {
+            agg += counts1[i1];
+        }
+        return agg + remaining(cursor2, more2);
+    }
+
+    /**
+     * L1 norm of the difference of the stored profiles.
+     * @param cursor1
+     * @param cursor2
+     * @return the L1 distance
+     */
+    static long l1Distance(final ProfileCursor cursor1,
+                           final ProfileCursor cursor2) {
+        boolean more1 = cursor1.next();
+        boolean more2 = cursor2.next();
+        long agg = 0;
+        while (more1 && more2) {
+            long key1 = cursor1.key();
+            long key2 = cursor2.key();
+            if (key1 < key2) {
+                agg += cursor1.count();
+                more1 = cursor1.next();
+            } else if (key1 > key2) {
+                agg += cursor2.count();
+                more2 = cursor2.next();
+            } else {
+                agg += Math.abs(cursor1.count() - cursor2.count());
+                more1 = cursor1.next();
+                more2 = cursor2.next();
+            }
+        }
+        return agg + remaining(cursor1, more1) + remaining(cursor2, more2);
+    }
+
+    /**
+     * Sum of the counts of the current and following shingles of the
+     * cursor.
+     * @param cursor
+     * @param more false if the cursor is already past the last shingle
+     * @return the sum of the counts
+     */
+    private static long remaining(final ProfileCursor cursor,
+                                  final boolean more) {
+        if (!more) {
+            return 0;
+        }
+
+        long agg = cursor.count();
+        while (cursor.next()) {
+            agg += cursor.count();
+        }
+        return agg;
+    }
+
+    /**
+     * L2 norm of the vector.
+     * @param counts
+     * @return the L2 norm
+     */
+    static double norm(final int[] counts) {
+        double agg = 0;
+        for (int count : counts) {
+            agg += 1.0 * count * count;
+        }
+        return Math.sqrt(agg);
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+
+/**
+ * Suffix automaton (Blumer et al. "The smallest automaton recognizing the
+ * subwords of a text", 1985) of a text, used to find the longest common
+ * substring between the text and another string.
+ *
+ * The automaton of a text of length m has at most 2m states and 3m
+ * transitions, and is built in O(m). The other string is then scanned once,
+ * following the transitions while they exist and the suffix links otherwise,
+ * so that the longest substring of the text ending at each position is known.
+ * Hence the longest common substring is found in O(n + m), instead of
+ * comparing all pairs of substrings.
+ *
+ * The transitions are stored in an open addressing hash table, keyed by
+ * (state, character), so the automaton supports the whole char range without
+ * boxing. Instances are mutable and can be rebuilt and reused.
+ *
+ * @author Thibault Debatty
+ */
+final class SuffixAutomaton {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long HASH = 0x9E3779B97F4A7C15L;
+    private static final int CHAR_BITS = 16;
+    private static final int TRANSITIONS_PER_CHAR = 3;
+
+    // states
+    private int[] lengths = new int[0];
+    private int[] links = new int[0];
+    private int[] first_ends = new int[0];
+    private int[] first_transitions = new int[0];
+    private int size;
+    private int last;
+
+    // transitions, with the transitions of each state chained in a list
+    private long[] keys = new long[0];
+    private int[] targets = new int[0];
+    private int[] next_transitions = new int[0];
+    private int capacity;
+    private int shift;
+
+    // result of the last call to longestMatch
+    private int match_start;
+    private int text_start;
+
+    /**
+     * (Re)build the automaton of text[from, to).
+     * @param text
+     * @param from index of the first character (inclusive)
+     * @param to index of the last character (exclusive)
+     */
+    void build(final String text, final int from, final int to) {
+        int m = to - from;
+        allocate(m);
+
+        size = 1;
+        last = 0;
+        lengths[0] = 0;
+        links[0] = -1;
+        first_ends[0] = from - 1;
+        first_transitions[0] = -1;
+
+        for (int i = from; i < to; i++) {
+            extend(text.charAt(i), i);
+        }
+    }
+
+    /**
+     * Find the longest substring of s[from, to) that also occurs in the
+     * text. If there are several, the one that starts first in s is selected,
+     * and its first occurrence in the text.
+     * @param s
+     * @param from index of the first character (inclusive)
+     * @param to index of the last character (exclusive)
+     * @return the length of the substring (0 if s and the text have no
+     * character in common)
+     */
+    int longestMatch(final String s, final int from, final int to) {
+        int state = 0;
+        int length = 0;
+        int best = 0;
+        int best_end = 0;
+        int best_state = 0;
+
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            int slot = find(state, c);
+            while (slot < 0 && state != 0) {
+                state = links[state];
+                length = lengths[state];
+                slot = find(state, c);
+            }
+
+            if (slot < 0) {
+                state = 0;
+                length = 0;
+            } else {
+                state = targets[slot];
+                length++;
+            }
+
+            if (length > best) {
+                best = length;
+                best_end = i;
+                best_state = state;
+            }
+        }
+
+        // all the substrings of a state end at the same positions
+        match_start = best_end - best + 1;
+        text_start = first_ends[best_state] - best + 1;
+        return best;
+    }
+
+    /**
+     * Position in s of the substring found by the last call to longestMatch.
+     * @return the index of the first character of the substring
+     */
+    int matchStart() {
+        return match_start;
+    }
+
+    /**
+     * Position of the first occurrence in the text of the substring found by
+     * the last call to longestMatch.
+     * @return the index of the first character of the occurrence
+     */
+    int textStart() {
+        return text_start;
+    }
+
+    private void extend(final char c, final int position) {
+        int cur = newState(lengths[last] + 1, position);
+        int p = last;
+        while (p != -1 && find(p, c) < 0) {
+            put(p, c, cur);
+            p = links[p];
+        }
+
+        if (p == -1) {
+            links[cur] = 0;
+        } else {
+            int q = targets[find(p, c)];
+            if (lengths[p] + 1 == lengths[q]) {
+                links[cur] = q;
+            } else {
+                int clone = newState(lengths[p] + 1, first_ends[q]);
+                links[clone] = links[q];
+                for (int t = first_transitions[q]; t >= 0;
+                        t = next_transitions[t]) {
+                    put(clone, (char) keys[t], targets[t]);
+                }
+
+                int slot = find(p, c);
+                while (slot >= 0 && targets[slot] == q) {
+                    targets[slot] = clone;
+                    p = links[p];
+                    if (p == -1) {
+                        break;
+                    }
+                    slot = find(p, c);
+                }
+                links[q] = clone;
+                links[cur] = clone;
+            }
+        }
+        last = cur;
+    }
+
+    private int newState(final int length, final int first_end) {
+        int state = size;
+        size++;
+        lengths[state] = length;
+        first_ends[state] = first_end;
+        first_transitions[state] = -1;
+        return state;
+    }
+
+    /**
+     * Slot of the transition of state on c.
+     * @return the slot, or -1 if there is no transition
+     */
+    private int find(final int state, final char c) {
+        long key = key(state, c);
+        int mask = capacity - 1;
+        int slot = (int) ((key * HASH) >>> shift);
+        while (keys[slot] != -1L) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Add a transition (state is known to have no transition on c).
+     */
+    private void put(final int state, final char c, final int target) {
+        long key = key(state, c);
+        int mask = capacity - 1;
+        int slot = (int) ((key * HASH) >>> shift);
+        while (keys[slot] != -1L) {
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        targets[slot] = target;
+        next_transitions[slot] = first_transitions[state];
+        first_transitions[state] = slot;
+    }
+
+    private static long key(final int state, final char c) {
+        return ((long) state << CHAR_BITS) | c;
+    }
+
+    private void allocate(final int m) {
+        int states = 2 * m + 1;
+        if (lengths.length < states) {
+            lengths = new int[states];
+            links = new int[states];
+            first_ends = new int[states];
+            first_transitions = new int[states];
+        }
+
+        // keep the load factor below 1/2
+        int new_capacity = MIN_CAPACITY;
+        while (new_capacity < 2 * (TRANSITIONS_PER_CHAR * m + 1)) {
+            new_capacity <<= 1;
+        }
+
+        if (keys.length < new_capacity) {
+            keys = new long[new_capacity];
+            targets = new int[new_capacity];
+            next_transitions = new int[new_capacity];
+        }
+        Arrays.fill(keys, 0, new_capacity, -1L);
+        capacity = new_capacity;
+        shift = Long.SIZE - Integer.numberOfTrailingZeros(new_capacity);
+    }
+}
@@ -35,9 +35,21 @@ import net.jcip.annotations.Immutable;
 @Immutable
 public class WeightedLevenshtein implements StringDistance {
 
+    // double buffers of the workspace
+    private static final int ROW0 = 0;
+    private static final int ROW1 = 1;
+    private static final int INSERTIONS = 2;
+    private static final int DELETIONS = 3;
+
     private final CharacterSubstitutionInterface charsub;
     private final CharacterInsDelInterface charchange;
 
+    // precomputed substitution costs (or null)
+    private final CostTable table;
+
+    // all insertions and deletions cost 1
+    private final boolean uniform_insdel;
+
     /**
      * Instantiate with provided character substitution.
      * @param charsub The strategy to determine character substitution weights.
@@ -57,6 +69,29 @@ public class WeightedLevenshtein implements StringDistance {
                                final CharacterInsDelInterface charchange) {
         this.charsub = charsub;
         this.charchange = charchange;
+
+        if (charsub instanceof CostTable) {
+            table = (CostTable) charsub;
+        } else {
+            table = null;
+        }
+
+        if (charchange instanceof CostTable) {
+            uniform_insdel = ((CostTable) charchange).uniformInsDel();
+        } else {
+            uniform_insdel = charchange == null;
+        }
+    }
+
+    /**
+     * Instantiate with precomputed substitution, insertion and deletion
+     * weights. The costs of the characters of the table are read directly
+     * from the table, instead of calling the cost interfaces for each cell
+     * of the matrix.
+     * @param costs The table of substitution, insertion and deletion weights.
+     */
+    public WeightedLevenshtein(final CostTable costs) {
+        this(costs, costs);
     }
 
     /**
@@ -75,11 +110,36 @@ public class WeightedLevenshtein implements StringDistance {
      *              only care about strings with a certain similarity.
      *              Set this to Double.MAX_VALUE if you want to run the
      *              calculation to completion in every case.
-     * @return The computed weighted Levenshtein distance.
+     *              Using the smallest insertion and deletion costs of the
+     *              characters of the strings, the implementation only
+     *              computes the diagonals of the matrix that can lead to a
+     *              distance smaller than the limit, and stops as soon as
+     *              no path through the current row can stay below the limit.
+     * @return The computed weighted Levenshtein distance, or limit if the
+     *              distance is at least limit.
      * @throws NullPointerException if s1 or s2 is null.
      */
     public final double distance(final String s1, final String s2,
                                  final double limit) {
+        return distance(s1, s2, limit, Workspace.local());
+    }
+
+    /**
+     * Same as distance(s1, s2, limit), but using the provided workspace
+     * instead of the default workspace of the current thread. The cost
+     * functions must not use this workspace (they can call other metrics,
+     * that will use another workspace).
+     * @param s1 The first string to compare.
+     * @param s2 The second string to compare.
+     * @param limit The maximum result to compute before stopping.
+     * @param workspace The scratch buffers to use for the computation.
+     * @return The computed weighted Levenshtein distance, or limit if the
+     *              distance is at least limit.
+     * @throws NullPointerException if s1 or s2 is null.
+     */
+    public final double distance(final String s1, final String s2,
+                                 final double limit,
+                                 final Workspace workspace) {
         if (s1 == null) {
             throw new NullPointerException("s1 must not be null");
         }
@@ -92,72 +152,199 @@ public class WeightedLevenshtein implements StringDistance {
             return 0;
         }
 
-        if (s1.length() == 0) {
-            return s2.length();
+        // the cost functions may call other metrics: they must not get this
+        // workspace from Workspace.local()
+        boolean busy = workspace.enter();
+        try {
+            return weightedDistance(s1, s2, limit, workspace);
+        } finally {
+            workspace.leave(busy);
         }
+    }
 
-        if (s2.length() == 0) {
-            return s1.length();
+    private double weightedDistance(final String s1, final String s2,
+                                    final double limit,
+                                    final Workspace workspace) {
+        // With uniform insertion and deletion costs, an optimal alignment
+        // matches the common prefix and suffix of the strings. This is not
+        // true with arbitrary insertion and deletion costs (it may be cheaper
+        // to delete a character and substitute the next one).
+        int prefix = 0;
+        int suffix = 0;
+        if (uniform_insdel) {
+            prefix = Affixes.prefix(s1, s2);
+            suffix = Affixes.suffix(s1, s2, prefix);
         }
+        int n = s1.length() - prefix - suffix;
+        int m = s2.length() - prefix - suffix;
 
         // create two work vectors of floating point (i.e. weighted) distances
-        double[] v0 = new double[s2.length() + 1];
-        double[] v1 = new double[s2.length() + 1];
+        double[] v0 = workspace.doubles(ROW0, m + 1);
+        double[] v1 = workspace.doubles(ROW1, m + 1);
         double[] vtemp;
 
+        // insertion cost and index in the cost table of each character of s2
+        double[] insertion_costs = workspace.doubles(INSERTIONS, m);
+        int[] ids2 = workspace.ints(0, m);
+        double min_insertion = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < m; j++) {
+            char s2j = s2.charAt(prefix + j);
+            insertion_costs[j] = insertionCost(s2j);
+            min_insertion = Math.min(min_insertion, insertion_costs[j]);
+            if (table != null) {
+                ids2[j] = table.index(s2j);
+            }
+        }
+
+        // deletion cost of each character of s1
+        double[] deletion_costs = workspace.doubles(DELETIONS, n);
+        double min_deletion = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            deletion_costs[i] = deletionCost(s1.charAt(prefix + i));
+            min_deletion = Math.min(min_deletion, deletion_costs[i]);
+        }
+
+        // A path that goes through cell (i, j) has to insert (or delete)
+        // |j - i| characters to reach the cell, and |(m - j) - (n - i)|
+        // characters to reach the end of the matrix. This gives a lower bound
+        // on the distance, which is minimal (and equal to the cost of the
+        // length difference) between diagonals 0 and m - n.
+        int diff = m - n;
+        if (bound(diff, min_insertion, min_deletion) >= limit) {
+            return limit;
+        }
+
+        // only the diagonals k = j - i in [lo, hi] can lead to a distance
+        // smaller than limit
+        int lo = lastDiagonal(Math.min(0, diff), -1, -n, diff,
+                min_insertion, min_deletion, limit);
+        int hi = lastDiagonal(Math.max(0, diff), 1, m, diff,
+                min_insertion, min_deletion, limit);
+
         // initialize v0 (the previous row of distances)
         // this row is A[0][i]: edit distance for an empty s1
         // the distance is the cost of inserting each character of s2
+        // (if s1 or s2 is empty, the result is the last cell of the first
+        // row or column, which is the sum of the insertion or deletion costs)
+        int end = Math.min(m, hi);
         v0[0] = 0;
-        for (int i = 1; i < v0.length; i++) {
-            v0[i] = v0[i - 1] + insertionCost(s2.charAt(i - 1));
+        for (int j = 1; j <= end; j++) {
+            v0[j] = v0[j - 1] + insertion_costs[j - 1];
+        }
+        if (end < m) {
+            v0[end + 1] = Double.POSITIVE_INFINITY;
         }
 
-        for (int i = 0; i < s1.length(); i++) {
-            char s1i = s1.charAt(i);
-            double deletion_cost = deletionCost(s1i);
+        for (int i = 1; i <= n; i++) {
+            char s1i = s1.charAt(prefix + i - 1);
+            double deletion_cost = deletion_costs[i - 1];
+            int id1 = -1;
+            if (table != null) {
+                id1 = table.index(s1i);
+            }
 
-            // calculate v1 (current row distances) from the previous row v0
-            // first element of v1 is A[i+1][0]
-            // Edit distance is the cost of deleting characters from s1
-            // to match empty t.
-            v1[0] = v0[0] + deletion_cost;
+            int start = Math.max(0, i + lo);
+            end = Math.min(m, i + hi);
 
-            double minv1 = v1[0];
+            // lower bound of a path that goes through the current row
+            double min_path = Double.POSITIVE_INFINITY;
+
+            if (start == 0) {
+                // first element of v1 is A[i][0]
+                // Edit distance is the cost of deleting characters from s1
+                // to match empty t.
+                v1[0] = v0[0] + deletion_cost;
+                min_path = v1[0] + bound(diff + i, min_insertion, min_deletion);
+                start = 1;
+            } else {
+                // cells outside of the band are infinite
+                v1[start - 1] = Double.POSITIVE_INFINITY;
+            }
 
             // use formula to fill in the rest of the row
-            for (int j = 0; j < s2.length(); j++) {
-                char s2j = s2.charAt(j);
+            for (int j = start; j <= end; j++) {
+                char s2j = s2.charAt(prefix + j - 1);
                 double cost = 0;
                 if (s1i != s2j) {
-                    cost = charsub.cost(s1i, s2j);
+                    cost = substitutionCost(s1i, id1, s2j, ids2[j - 1]);
                 }
-                double insertion_cost = insertionCost(s2j);
-                v1[j + 1] = Math.min(
-                        v1[j] + insertion_cost, // Cost of insertion
+                v1[j] = Math.min(
+                        v1[j - 1] + insertion_costs[j - 1], // insertion
                         Math.min(
-                                v0[j + 1] + deletion_cost, // Cost of deletion
-                                v0[j] + cost)); // Cost of substitution
+                                v0[j] + deletion_cost, // Cost of deletion
+                                v0[j - 1] + cost)); // Cost of substitution
+
+                min_path = Math.min(min_path, v1[j]
+                        + bound(diff - j + i, min_insertion, min_deletion));
+            }
 
-                minv1 = Math.min(minv1, v1[j + 1]);
+            if (end < m) {
+                v1[end + 1] = Double.POSITIVE_INFINITY;
             }
 
-            if (minv1 >= limit) {
+            // every path goes through the current row
+            if (min_path >= limit) {
                 return limit;
             }
 
-            // copy v1 (current row) to v0 (previous row) for next iteration
-            //System.arraycopy(v1, 0, v0, 0, v0.length);
             // Flip references to current and previous row
             vtemp = v0;
             v0 = v1;
             v1 = vtemp;
+        }
+
+        return Math.min(v0[m], limit);
+    }
 
+    /**
+     * Move from diagonal k, by step, as long as the lower bound of a path
+     * that goes through the next diagonal is smaller than limit.
+     */
+    private static int lastDiagonal(final int k, final int step,
+                                    final int last, final int diff,
+                                    final double min_insertion,
+                                    final double min_deletion,
+                                    final double limit) {
+        int diagonal = k;
+        while (diagonal != last) {
+            int next = diagonal + step;
+            double lower_bound = bound(next, min_insertion, min_deletion)
+                    + bound(diff - next, min_insertion, min_deletion);
+            if (lower_bound >= limit) {
+                break;
+            }
+            diagonal = next;
         }
+        return diagonal;
+    }
 
-        return v0[s2.length()];
+    /**
+     * Minimum cost of a path that moves k diagonals (insertions if k &gt; 0,
+     * deletions if k &lt; 0).
+     */
+    private static double bound(final int k, final double min_insertion,
+                                final double min_deletion) {
+        if (k > 0) {
+            return k * min_insertion;
+        }
+        if (k < 0) {
+            return -k * min_deletion;
+        }
+        return 0;
     }
 
+    /**
+     * Cost of substituting c1 by c2, read from the cost table if both
+     * characters are part of it (id1 and id2 are their index in the table,
+     * or -1).
+     */
+    private double substitutionCost(final char c1, final int id1,
+                                    final char c2, final int id2) {
+        if (id1 >= 0 && id2 >= 0) {
+            return table.substitution(id1, id2);
+        }
+        return charsub.cost(c1, c2);
+    }
 
     private double insertionCost(final char c) {
         if (charchange == null) {
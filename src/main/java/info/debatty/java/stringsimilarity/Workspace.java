@@ -0,0 +1,277 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Scratch buffers used by the dynamic programming and bit-parallel algorithms
+ * (Levenshtein, WeightedLevenshtein, Damerau, OptimalStringAlignment,
+ * LongestCommonSubsequence, NGram, RatcliffObershelp...).
+ *
+ * Buffers grow when a longer string is processed, and are reused by the
+ * following computations. Hence, once the workspace has grown to the size
+ * of the strings that are processed, the computations allocate no memory.
+ *
+ * A workspace must not be used by two threads at the same time. The methods
+ * that do not take a workspace as parameter use a default workspace that is
+ * confined to the current thread (see local()). The buffers are kept as long
+ * as the thread lives (or until clear() is called), so after processing very
+ * long strings it may be worth calling Workspace.local().clear().
+ *
+ * WeightedLevenshtein calls the cost functions of the user while it uses
+ * its workspace. If a cost function calls another metric, this metric gets
+ * a new (temporary) workspace from local(), instead of the default
+ * workspace that is already in use. A workspace that is given explicitly
+ * to a metric must not be used by the cost functions.
+ *
+ * @author Thibault Debatty
+ */
+@NotThreadSafe
+public final class Workspace {
+
+    private static final ThreadLocal<Workspace> LOCAL =
+            new ThreadLocal<Workspace>() {
+                @Override
+                protected Workspace initialValue() {
+                    return new Workspace();
+                }
+            };
+
+    /**
+     * Number of buffers of each type.
+     */
+    static final int BUFFERS = 5;
+
+    /**
+     * Number of profile cursors.
+     */
+    private static final int CURSORS = 2;
+
+    private final int[][] ints = new int[BUFFERS][];
+    private final long[][] longs = new long[BUFFERS][];
+    private final float[][] floats = new float[BUFFERS][];
+    private final double[][] doubles = new double[BUFFERS][];
+    private final char[][] chars = new char[BUFFERS][];
+
+    private CompiledPattern pattern;
+    private CharIndex char_index;
+    private SuffixAutomaton suffix_automaton;
+    private final ProfileCursor[] cursors = new ProfileCursor[CURSORS];
+
+    // in use by a computation that calls user code
+    private boolean busy;
+
+    /**
+     * Create a new (empty) workspace.
+     */
+    public Workspace() {
+        clear();
+    }
+
+    /**
+     * Return the default workspace of the current thread, or a new
+     * workspace if the default workspace is already in use by a computation
+     * that called this method from user code (a cost function).
+     *
+     * @return the workspace of the current thread
+     */
+    public static Workspace local() {
+        Workspace workspace = LOCAL.get();
+        if (workspace.busy) {
+            return new Workspace();
+        }
+        return workspace;
+    }
+
+    /**
+     * Mark this workspace as used by a computation that calls user code.
+     * @return the previous state, to give to leave()
+     */
+    boolean enter() {
+        boolean previous = busy;
+        busy = true;
+        return previous;
+    }
+
+    /**
+     * Restore the state of the workspace, when the computation that called
+     * enter() is done.
+     * @param previous the value returned by enter()
+     */
+    void leave(final boolean previous) {
+        busy = previous;
+    }
+
+    /**
+     * Release all the buffers held by this workspace.
+     */
+    public void clear() {
+        for (int i = 0; i < BUFFERS; i++) {
+            ints[i] = new int[0];
+            longs[i] = new long[0];
+            floats[i] = new float[0];
+            doubles[i] = new double[0];
+            chars[i] = new char[0];
+        }
+        pattern = new CompiledPattern();
+        char_index = new CharIndex();
+        suffix_automaton = new SuffixAutomaton();
+        for (int i = 0; i < CURSORS; i++) {
+            cursors[i] = new ProfileCursor();
+        }
+    }
+
+    /**
+     * Get int buffer number i, with a length of at least size. The content
+     * of the buffer is undefined.
+     * @param i
+     * @param size
+     * @return the buffer
+     */
+    int[] ints(final int i, final int size) {
+        if (ints[i].length < size) {
+            ints[i] = new int[grow(size)];
+        }
+        return ints[i];
+    }
+
+    /**
+     * Get long buffer number i, with a length of at least size. The content
+     * of the buffer is undefined.
+     * @param i
+     * @param size
+     * @return the buffer
+     */
+    long[] longs(final int i, final int size) {
+        if (longs[i].length < size) {
+            longs[i] = new long[grow(size)];
+        }
+        return longs[i];
+    }
+
+    /**
+     * Get float buffer number i, with a length of at least size. The content
+     * of the buffer is undefined.
+     * @param i
+     * @param size
+     * @return the buffer
+     */
+    float[] floats(final int i, final int size) {
+        if (floats[i].length < size) {
+            floats[i] = new float[grow(size)];
+        }
+        return floats[i];
+    }
+
+    /**
+     * Get double buffer number i, with a length of at least size. The
+     * content of the buffer is undefined.
+     * @param i
+     * @param size
+     * @return the buffer
+     */
+    double[] doubles(final int i, final int size) {
+        if (doubles[i].length < size) {
+            doubles[i] = new double[grow(size)];
+        }
+        return doubles[i];
+    }
+
+    /**
+     * Get char buffer number i, with a length of at least size. The content
+     * of the buffer is undefined.
+     * @param i
+     * @param size
+     * @return the buffer
+     */
+    char[] chars(final int i, final int size) {
+        if (chars[i].length < size) {
+            chars[i] = new char[grow(size)];
+        }
+        return chars[i];
+    }
+
+    /**
+     * Compile string[from, to) in the pattern of this workspace. The
+     * returned pattern is overwritten by the next call.
+     * @param string
+     * @param from
+     * @param to
+     * @return the compiled pattern
+     */
+    CompiledPattern pattern(final String string, final int from,
+                            final int to) {
+        pattern.set(string, from, to);
+        return pattern;
+    }
+
+    /**
+     * Get the (cleared) character index of this workspace.
+     * @param expected upper bound on the number of distinct characters
+     * @return the character index
+     */
+    CharIndex charIndex(final int expected) {
+        char_index.clear(expected);
+        return char_index;
+    }
+
+    /**
+     * Build the suffix automaton of this workspace for text[from, to). The
+     * returned automaton is overwritten by the next call.
+     * @param text
+     * @param from
+     * @param to
+     * @return the suffix automaton
+     */
+    SuffixAutomaton suffixAutomaton(final String text, final int from,
+                                    final int to) {
+        suffix_automaton.build(text, from, to);
+        return suffix_automaton;
+    }
+
+    /**
+     * Position profile cursor number i before the first shingle of profile
+     * index of the store. The returned cursor is overwritten by the next
+     * call.
+     * @param i
+     * @param store
+     * @param index
+     * @return the cursor
+     */
+    ProfileCursor cursor(final int i, final ProfileStore store,
+                         final int index) {
+        return cursors[i].reset(store, index);
+    }
+
+    private static int grow(final int size) {
+        // leave some room to avoid reallocating for each slightly longer
+        // string
+        int grown = size + (size >> 1);
+        if (grown < size) {
+            return size;
+        }
+        return grown;
+    }
+}
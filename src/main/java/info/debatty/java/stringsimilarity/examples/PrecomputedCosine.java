@@ -24,6 +24,7 @@
 package info.debatty.java.stringsimilarity.examples;
 
 import info.debatty.java.stringsimilarity.Cosine;
+import info.debatty.java.stringsimilarity.CosineProfile;
 import java.util.Map;
 
 /**
@@ -50,6 +51,15 @@ public class PrecomputedCosine {
         // Prints 0.516185
         System.out.println(cosine.similarity(profile1, profile2));
 
+        // Or pre-compute compact profiles with their norm, so that only the
+        // dot product remains to be computed for each pair
+        CosineProfile cosine_profile1 = cosine.getCosineProfile(s1);
+        CosineProfile cosine_profile2 = cosine.getCosineProfile(s2);
+
+        // Prints 0.516185
+        System.out.println(
+                cosine.similarity(cosine_profile1, cosine_profile2));
+
     }
 
 }
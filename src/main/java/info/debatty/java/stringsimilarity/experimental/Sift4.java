@@ -24,7 +24,7 @@
 package info.debatty.java.stringsimilarity.experimental;
 
 import info.debatty.java.stringsimilarity.interfaces.StringDistance;
-import java.util.LinkedList;
+import net.jcip.annotations.Immutable;
 
 /**
  * Sift4 - a general purpose string distance algorithm inspired by JaroWinkler
@@ -33,21 +33,101 @@ import java.util.LinkedList;
  * https://siderite.dev/blog/super-fast-and-accurate-string-distance.html
  * https://blackdoor.github.io/blog/sift4-java/
  *
+ * The pending offsets are kept in a ring buffer of primitive arrays instead
+ * of a list of objects. The buffer is allocated for each computation, with a
+ * fixed capacity: max_offset pairs (or the length of the shortest string,
+ * if it is smaller) plus a few. In practice no more than max_offset + 1
+ * pairs are pending; if the buffer is full anyway, the oldest pair is
+ * dropped, which can only change the number of transpositions. When a
+ * maximum distance is given, the computation stops as soon as the distance
+ * computed so far exceeds it, which makes Sift4 a very cheap filter before
+ * a more expensive metric.
+ *
+ * Instances are immutable: the maximum offset and the maximum distance are
+ * given to the constructor, and the deprecated setMaxOffset throws an
+ * UnsupportedOperationException.
+ *
  * @author Thibault Debatty
  */
+@Immutable
 public class Sift4 implements StringDistance {
 
     private static final int DEFAULT_MAX_OFFSET = 10;
 
-    private int max_offset = DEFAULT_MAX_OFFSET;
+    private final int max_offset;
+    private final int max_distance;
+
+    /**
+     * Instantiate with the default maximum offset (10), and no maximum
+     * distance.
+     */
+    public Sift4() {
+        this(DEFAULT_MAX_OFFSET);
+    }
+
+    /**
+     * Instantiate with the given maximum offset, and no maximum distance.
+     * @param max_offset the maximum distance to search for character
+     *                   transposition (the cost of the algorithm is
+     *                   O(n . max_offset))
+     * @throws IllegalArgumentException if max_offset is negative
+     */
+    public Sift4(final int max_offset) {
+        this(max_offset, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Instantiate with the given maximum offset and maximum distance.
+     * @param max_offset the maximum distance to search for character
+     *                   transposition (the cost of the algorithm is
+     *                   O(n . max_offset))
+     * @param max_distance stop the computation as soon as the distance is
+     *                     larger than this value
+     * @throws IllegalArgumentException if max_offset or max_distance is
+     * negative
+     */
+    public Sift4(final int max_offset, final int max_distance) {
+        if (max_offset < 0) {
+            throw new IllegalArgumentException(
+                    "max_offset must not be negative");
+        }
+
+        if (max_distance < 0) {
+            throw new IllegalArgumentException(
+                    "max_distance must not be negative");
+        }
+
+        this.max_offset = max_offset;
+        this.max_distance = max_distance;
+    }
 
     /**
-     * Set the maximum distance to search for character transposition.
-     * Compute cost of algorithm is O(n . max_offset)
+     * Not supported: Sift4 is immutable.
      * @param max_offset
+     * @throws UnsupportedOperationException always
+     * @deprecated Sift4 must be configured using the constructor,
+     * new Sift4(max_offset).
      */
+    @Deprecated
     public final void setMaxOffset(final int max_offset) {
-        this.max_offset = max_offset;
+        throw new UnsupportedOperationException(
+                "Sift4 is immutable: use new Sift4(max_offset)");
+    }
+
+    /**
+     * The maximum distance to search for character transposition.
+     * @return the maximum offset
+     */
+    public final int getMaxOffset() {
+        return max_offset;
+    }
+
+    /**
+     * The distance above which the computation stops.
+     * @return the maximum distance (Integer.MAX_VALUE if there is none)
+     */
+    public final int getMaxDistance() {
+        return max_distance;
     }
 
     /**
@@ -58,29 +138,16 @@ public class Sift4 implements StringDistance {
      * https://siderite.dev/blog/super-fast-and-accurate-string-distance.html
      * https://blackdoor.github.io/blog/sift4-java/
      *
+     * If a maximum distance was given, and the distance computed so far
+     * exceeds it, the computation stops and this partial distance (larger
+     * than the maximum distance) is returned.
+     *
      * @param s1
      * @param s2
-     * @return
+     * @return the Sift4 distance
      */
     public final double distance(final String s1, final String s2) {
 
-        /**
-         * Used to store relation between same character in different positions
-         * c1 and c2 in the input strings.
-         */
-        class Offset {
-
-            private final int c1;
-            private final int c2;
-            private boolean trans;
-
-            Offset(final int c1, final int c2, final boolean trans) {
-                this.c1 = c1;
-                this.c2 = c2;
-                this.trans = trans;
-            }
-        }
-
         if (s1 == null || s1.isEmpty()) {
             if (s2 == null) {
                 return 0;
@@ -102,8 +169,9 @@ public class Sift4 implements StringDistance {
         int local_cs = 0; //local common substring
         int trans = 0;  //number of transpositions ('ab' vs 'ba')
 
-        // offset pair array, for computing the transpositions
-        LinkedList<Offset> offset_arr = new LinkedList<Offset>();
+        // offset pairs, for computing the transpositions
+        Offsets offset_arr =
+                new Offsets(Math.min(max_offset, Math.min(l1, l2)));
 
         while ((c1 < l1) && (c2 < l2)) {
             if (s1.charAt(c1) == s2.charAt(c2)) {
@@ -112,33 +180,34 @@ public class Sift4 implements StringDistance {
                 // see if current match is a transposition
                 int i = 0;
                 while (i < offset_arr.size()) {
-                    Offset ofs = offset_arr.get(i);
-                    if (c1 <= ofs.c1 || c2 <= ofs.c2) {
+                    int ofs_c1 = offset_arr.c1(i);
+                    int ofs_c2 = offset_arr.c2(i);
+                    if (c1 <= ofs_c1 || c2 <= ofs_c2) {
                         // when two matches cross, the one considered a
                         // transposition is the one with the largest difference
                         // in offsets
                         is_trans =
-                                Math.abs(c2 - c1) >= Math.abs(ofs.c2 - ofs.c1);
+                                Math.abs(c2 - c1) >= Math.abs(ofs_c2 - ofs_c1);
                         if (is_trans) {
 
                             trans++;
                         } else {
-                            if (!ofs.trans) {
-                                ofs.trans = true;
+                            if (!offset_arr.trans(i)) {
+                                offset_arr.setTrans(i);
                                 trans++;
                             }
                         }
 
                         break;
                     } else {
-                        if (c1 > ofs.c2 && c2 > ofs.c1) {
+                        if (c1 > ofs_c2 && c2 > ofs_c1) {
                             offset_arr.remove(i);
                         } else {
                             i++;
                         }
                     }
                 }
-                offset_arr.add(new Offset(c1, c2, is_trans));
+                offset_arr.add(c1, c2, is_trans);
 
             } else {
 
@@ -151,6 +220,12 @@ public class Sift4 implements StringDistance {
                     c2 = c1;
                 }
 
+                // early termination
+                int temporary_distance = Math.max(c1, c2) - lcss + trans;
+                if (temporary_distance > max_distance) {
+                    return temporary_distance;
+                }
+
                 // if matching characters are found, remove 1 from both cursors
                 // (they get incremented at the end of the loop)
                 // so that we can have only one code block handling matches
@@ -187,4 +262,84 @@ public class Sift4 implements StringDistance {
         // add the cost of transpositions to the final result
         return Math.round(Math.max(l1, l2) - lcss + trans);
     }
+
+    /**
+     * Ring buffer of offset pairs (c1, c2, trans), stored in primitive
+     * arrays. The capacity is fixed: when the buffer is full, adding a pair
+     * drops the oldest one.
+     */
+    private static final class Offsets {
+
+        // room for a few pairs more than the maximum offset
+        private static final int EXTRA_CAPACITY = 4;
+
+        private final int[] c1s;
+        private final int[] c2s;
+        private final boolean[] transs;
+        private final int mask;
+        private int head;
+        private int size;
+
+        Offsets(final int expected) {
+            int capacity = Integer.highestOneBit(expected + EXTRA_CAPACITY);
+            if (capacity < expected + EXTRA_CAPACITY) {
+                capacity <<= 1;
+            }
+
+            c1s = new int[capacity];
+            c2s = new int[capacity];
+            transs = new boolean[capacity];
+            mask = capacity - 1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int c1(final int i) {
+            return c1s[(head + i) & mask];
+        }
+
+        int c2(final int i) {
+            return c2s[(head + i) & mask];
+        }
+
+        boolean trans(final int i) {
+            return transs[(head + i) & mask];
+        }
+
+        void setTrans(final int i) {
+            transs[(head + i) & mask] = true;
+        }
+
+        void add(final int c1, final int c2, final boolean trans) {
+            if (size > mask) {
+                // full: drop the oldest pair
+                head = (head + 1) & mask;
+                size--;
+            }
+
+            int slot = (head + size) & mask;
+            c1s[slot] = c1;
+            c2s[slot] = c2;
+            transs[slot] = trans;
+            size++;
+        }
+
+        /**
+         * Remove pair i, by moving the pairs before it one slot forward
+         * (pairs are usually removed from the front).
+         */
+        void remove(final int i) {
+            for (int k = i; k > 0; k--) {
+                int to = (head + k) & mask;
+                int from = (head + k - 1) & mask;
+                c1s[to] = c1s[from];
+                c2s[to] = c2s[from];
+                transs[to] = transs[from];
+            }
+            head = (head + 1) & mask;
+            size--;
+        }
+    }
 }
@@ -109,6 +109,26 @@ public class CosineTest {
         assertEquals(0.1885, similarity, 0.001);
     }
 
+    /**
+     * Profiles with a precomputed norm give the same similarity.
+     */
+    @Test
+    public final void testCosineProfile() throws IOException {
+        Cosine cos = new Cosine();
+        String string1 = readResourceFile("71816-2.txt");
+        String string2 = readResourceFile("11328-1.txt");
+
+        CosineProfile profile1 = cos.getCosineProfile(string1);
+        CosineProfile profile2 =
+                cos.getCosineProfile(cos.getShingleProfile(string2));
+        assertEquals(cos.similarity(string1, string2),
+                cos.similarity(profile1, profile2), 0.0);
+        assertEquals(cos.similarity(cos.getProfile("ABC"),
+                cos.getProfile("ABCE")),
+                cos.similarity(cos.getCosineProfile("ABC"),
+                        cos.getCosineProfile("ABCE")), 0.0);
+    }
+
     private static String readResourceFile(String file) throws IOException {
 
         InputStream stream = Thread.currentThread()
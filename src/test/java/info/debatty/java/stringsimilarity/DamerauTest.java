@@ -25,8 +25,12 @@
 package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.testutil.NullEmptyTests;
+import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.letters;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+import static info.debatty.java.stringsimilarity.testutil.ReferenceDistances.damerau;
 
 /**
  *
@@ -34,6 +38,8 @@ import static org.junit.Assert.assertEquals;
  */
 public class DamerauTest {
 
+    private static final String ALPHABET = "abc";
+
     /**
      * Test of distance method, of class Damerau.
      */
@@ -46,4 +52,73 @@ public class DamerauTest {
         assertEquals(1.0, instance.distance("ABCDEF", "ABCDE"), 0.0);
         NullEmptyTests.testDistance(instance);
     }
+
+    /**
+     * Strings with a common prefix and suffix give the same result as the
+     * full dynamic programming matrix.
+     */
+    @Test
+    public final void testAffixes() {
+        Damerau instance = new Damerau();
+        Random rand = new Random(1234);
+        for (int i = 0; i < 1000; i++) {
+            String prefix = randomString(rand, rand.nextInt(5), ALPHABET);
+            String suffix = randomString(rand, rand.nextInt(5), ALPHABET);
+            String s1 = prefix
+                    + randomString(rand, rand.nextInt(8), ALPHABET)
+                    + suffix;
+            String s2 = prefix
+                    + randomString(rand, rand.nextInt(8), ALPHABET)
+                    + suffix;
+
+            assertEquals(damerau(s1, s2), instance.distance(s1, s2), 0.0);
+            assertEquals(damerau(s2, s1), instance.distance(s2, s1), 0.0);
+        }
+    }
+
+    /**
+     * Random strings over alphabets of different sizes give the same result
+     * as the full Lowrance-Wagner matrix.
+     */
+    @Test
+    public final void testRandom() {
+        Damerau instance = new Damerau();
+        Random rand = new Random(4321);
+        for (int i = 0; i < 1000; i++) {
+            String alphabet = letters(1 + rand.nextInt(20));
+            String s1 = randomString(rand, rand.nextInt(40), alphabet);
+            String s2 = randomString(rand, rand.nextInt(40), alphabet);
+
+            assertEquals(damerau(s1, s2), instance.distance(s1, s2), 0.0);
+            assertEquals(damerau(s2, s1), instance.distance(s2, s1), 0.0);
+        }
+    }
+
+    /**
+     * Characters swapped at any distance, with other edits in between, over
+     * small and large alphabets.
+     */
+    @Test
+    public final void testTranspositions() {
+        Damerau instance = new Damerau();
+        Random rand = new Random(8642);
+        for (int i = 0; i < 2000; i++) {
+            String alphabet = letters(1 + rand.nextInt(40));
+            String s1 = randomString(rand, 1 + rand.nextInt(60), alphabet);
+            StringBuilder builder = new StringBuilder(s1);
+            for (int edit = rand.nextInt(6); edit > 0; edit--) {
+                int a = rand.nextInt(builder.length());
+                int b = rand.nextInt(builder.length());
+                char tmp = builder.charAt(a);
+                builder.setCharAt(a, builder.charAt(b));
+                builder.setCharAt(b, tmp);
+                builder.insert(rand.nextInt(builder.length() + 1),
+                        alphabet.charAt(rand.nextInt(alphabet.length())));
+            }
+            String s2 = builder.toString();
+
+            assertEquals(damerau(s1, s2), instance.distance(s1, s2), 0.0);
+            assertEquals(damerau(s2, s1), instance.distance(s2, s1), 0.0);
+        }
+    }
 }
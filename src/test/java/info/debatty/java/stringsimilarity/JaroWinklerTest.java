@@ -25,8 +25,12 @@
 package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.testutil.NullEmptyTests;
+import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.letters;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+import static info.debatty.java.stringsimilarity.testutil.ReferenceDistances.jaroWinkler;
 
 /**
  *
@@ -62,4 +66,67 @@ public class JaroWinklerTest {
 
         // TODO: regular (non-null/empty) distance tests
     }
+
+    /**
+     * The bitset implementation (and the compiled query) return exactly the
+     * same values as the original implementation.
+     */
+    @Test
+    public final void testSameValues() {
+        JaroWinkler instance = new JaroWinkler();
+        Random rand = new Random(31415);
+        for (int i = 0; i < 5000; i++) {
+            String alphabet = letters(1 + rand.nextInt(8));
+            String s1 = randomString(rand, rand.nextInt(150), alphabet);
+            String s2 = randomString(rand, rand.nextInt(150), alphabet);
+            if (rand.nextBoolean()) {
+                s2 = s1.substring(0, rand.nextInt(s1.length() + 1)) + s2;
+            }
+
+            double expected = jaroWinkler(s1, s2);
+            assertEquals(expected, instance.similarity(s1, s2), 0.0);
+            assertEquals(expected,
+                    instance.similarity(instance.compile(s1), s2), 0.0);
+            assertEquals(jaroWinkler(s2, s1),
+                    instance.similarity(instance.compile(s2), s1), 0.0);
+        }
+    }
+
+    /**
+     * With a minimum similarity, the result is the similarity if it is at
+     * least the minimum, and 0 otherwise.
+     */
+    @Test
+    public final void testMinSimilarity() {
+        JaroWinkler instance = new JaroWinkler();
+        Random rand = new Random(27182);
+        for (int i = 0; i < 5000; i++) {
+            String alphabet = letters(1 + rand.nextInt(8));
+            String s1 = randomString(rand, rand.nextInt(150), alphabet);
+            String s2 = randomString(rand, rand.nextInt(150), alphabet);
+            if (rand.nextBoolean()) {
+                s2 = s1.substring(0, rand.nextInt(s1.length() + 1)) + s2;
+            }
+            double min_similarity = rand.nextDouble();
+
+            double expected = jaroWinkler(s1, s2);
+            if (expected < min_similarity) {
+                expected = 0;
+            }
+            assertEquals(expected,
+                    instance.similarity(s1, s2, min_similarity), 0.0);
+            assertEquals(expected, instance.similarity(
+                    instance.compile(s1), s2, min_similarity), 0.0);
+
+            // exactly the similarity
+            expected = jaroWinkler(s1, s2);
+            assertEquals(expected,
+                    instance.similarity(s1, s2, expected), 0.0);
+        }
+
+        assertEquals(0.974074,
+                instance.similarity("My string", "My tsring", 0.92), 0.000001);
+        assertEquals(0.0,
+                instance.similarity("My string", "My ntrisg", 0.92), 0.0);
+    }
 }
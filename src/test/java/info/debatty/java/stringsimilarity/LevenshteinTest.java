@@ -25,8 +25,11 @@
 package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.testutil.NullEmptyTests;
+import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+import static info.debatty.java.stringsimilarity.testutil.ReferenceDistances.levenshtein;
 
 /**
  *
@@ -34,6 +37,8 @@ import static org.junit.Assert.assertEquals;
  */
 public class LevenshteinTest {
 
+    private static final String ALPHABET = "abcd";
+
     /**
      * Test of distance method, of class Levenshtein.
      */
@@ -52,4 +57,91 @@ public class LevenshteinTest {
 
         NullEmptyTests.testDistance(instance);
     }
+
+    /**
+     * Compare with the textbook DP algorithm, for strings that fit in a
+     * single word and for longer strings (multiple blocks).
+     */
+    @Test
+    public final void testBitParallel() {
+        System.out.println("bit-parallel");
+        Levenshtein instance = new Levenshtein();
+        Random rand = new Random(12345);
+
+        for (int i = 0; i < 2000; i++) {
+            String s1 = randomString(rand, rand.nextInt(150), ALPHABET);
+            String s2 = randomString(rand, rand.nextInt(150), ALPHABET);
+            int expected = levenshtein(s1, s2);
+
+            assertEquals(expected, instance.distance(s1, s2), 0.0);
+            assertEquals(
+                    expected,
+                    instance.distance(instance.compile(s1), s2),
+                    0.0);
+            assertEquals(
+                    expected,
+                    instance.distance(instance.compile(s2), s1),
+                    0.0);
+        }
+    }
+
+    /**
+     * With a limit, the result is the distance if it is smaller than the
+     * limit, and the limit otherwise. Long strings use the diagonal band.
+     */
+    @Test
+    public final void testBand() {
+        System.out.println("band");
+        Levenshtein instance = new Levenshtein();
+        Random rand = new Random(54321);
+
+        for (int i = 0; i < 2000; i++) {
+            String s1 = randomString(rand, 60 + rand.nextInt(150), ALPHABET);
+            String s2 = mutate(rand, s1, rand.nextInt(20));
+            int limit = rand.nextInt(30);
+            int expected = Math.min(levenshtein(s1, s2), limit);
+            if (s1.equals(s2)) {
+                expected = 0;
+            }
+
+            assertEquals(expected, instance.distance(s1, s2, limit), 0.0);
+            assertEquals(expected, instance.distance(s2, s1, limit), 0.0);
+        }
+    }
+
+    /**
+     * The limit also applies when one of the strings is empty.
+     */
+    @Test
+    public final void testEmptyWithLimit() {
+        Levenshtein instance = new Levenshtein();
+        assertEquals(3.0, instance.distance("", "abcdef", 3), 0.0);
+        assertEquals(3.0, instance.distance("abcdef", "", 3), 0.0);
+        assertEquals(6.0, instance.distance("", "abcdef", 10), 0.0);
+        assertEquals(0.0, instance.distance("", "", 3), 0.0);
+    }
+
+    private static String mutate(
+            final Random rand, final String s, final int edits) {
+        StringBuilder builder = new StringBuilder(s);
+        for (int i = 0; i < edits; i++) {
+            int pos = rand.nextInt(builder.length() + 1);
+            char c = (char) ('a' + rand.nextInt(4));
+            switch (rand.nextInt(3)) {
+                case 0:
+                    builder.insert(pos, c);
+                    break;
+                case 1:
+                    if (pos < builder.length()) {
+                        builder.deleteCharAt(pos);
+                    }
+                    break;
+                default:
+                    if (pos < builder.length()) {
+                        builder.setCharAt(pos, c);
+                    }
+            }
+        }
+        return builder.toString();
+    }
 }
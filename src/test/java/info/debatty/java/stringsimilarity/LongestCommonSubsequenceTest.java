@@ -24,9 +24,13 @@
 package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.testutil.NullEmptyTests;
+import java.util.Random;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.letters;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+import static info.debatty.java.stringsimilarity.testutil.ReferenceDistances.longestCommonSubsequence;
 
 /**
  *
@@ -48,4 +52,49 @@ public class LongestCommonSubsequenceTest {
 
         NullEmptyTests.testDistance(instance);
     }
+
+    /**
+     * The bit-parallel algorithm gives the same result as the dynamic
+     * programming algorithm, for patterns that fit in one or several words.
+     */
+    @Test
+    public void testBitParallel() {
+        System.out.println("bit-parallel");
+        LongestCommonSubsequence instance = new LongestCommonSubsequence();
+        Random rand = new Random(2468);
+        for (int i = 0; i < 1000; i++) {
+            String alphabet = letters(1 + rand.nextInt(10));
+            String s1 = randomString(rand, rand.nextInt(300), alphabet);
+            String s2 = randomString(rand, rand.nextInt(300), alphabet);
+            int expected = longestCommonSubsequence(s1, s2);
+
+            assertEquals(expected, instance.length(s1, s2));
+            assertEquals(expected, instance.length(s2, s1));
+        }
+    }
+
+    /**
+     * Hunt-Szymanski gives the same result as the dynamic programming
+     * algorithm. It is used by length() for long strings over a large
+     * alphabet.
+     */
+    @Test
+    public void testHuntSzymanski() {
+        System.out.println("Hunt-Szymanski");
+        LongestCommonSubsequence instance = new LongestCommonSubsequence();
+        Workspace workspace = new Workspace();
+        Random rand = new Random(1357);
+        for (int i = 0; i < 1000; i++) {
+            String alphabet = letters(1 + rand.nextInt(500));
+            String s1 = randomString(rand, rand.nextInt(300), alphabet);
+            String s2 = randomString(rand, rand.nextInt(300), alphabet);
+            int expected = longestCommonSubsequence(s1, s2);
+
+            assertEquals(expected, HuntSzymanski.length(
+                    s1, s2, 0, s1.length(), s2.length(), Long.MAX_VALUE,
+                    workspace));
+            assertEquals(expected, instance.length(s1, s2));
+            assertEquals(expected, instance.length(s2, s1));
+        }
+    }
 }
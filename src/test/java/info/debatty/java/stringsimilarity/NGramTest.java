@@ -25,9 +25,13 @@
 package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.testutil.NullEmptyTests;
+import java.util.Random;
 import org.junit.Assert;
 import static org.junit.Assert.assertEquals;
 import org.junit.Test;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.letters;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+import static info.debatty.java.stringsimilarity.testutil.ReferenceDistances.ngram;
 
 /**
  *
@@ -54,4 +58,44 @@ public class NGramTest {
 
         NullEmptyTests.testDistance(ngram);
     }
+
+    /**
+     * The in-place implementation, the prepared query and the cutoff give the
+     * same values as the original implementation.
+     */
+    @Test
+    public final void testSameValues() {
+        Random rand = new Random(16180);
+        for (int i = 0; i < 3000; i++) {
+            int n = 1 + rand.nextInt(4);
+            NGram instance = new NGram(n);
+            String alphabet = letters(1 + rand.nextInt(6));
+            String s1 = randomString(rand, rand.nextInt(40), alphabet);
+            String s2 = randomString(rand, rand.nextInt(40), alphabet);
+            if (rand.nextBoolean()) {
+                s2 = s1.substring(0, rand.nextInt(s1.length() + 1)) + s2;
+            }
+
+            double expected = ngram(s1, s2, n);
+            assertEquals(expected, instance.distance(s1, s2), 0.0);
+            assertEquals(expected,
+                    instance.distance(instance.compile(s1), s2), 0.0);
+
+            double max_distance = rand.nextDouble();
+            double limited = Math.min(expected, max_distance);
+            assertEquals(limited,
+                    instance.distance(s1, s2, max_distance), 0.0);
+            assertEquals(limited, instance.distance(
+                    instance.compile(s1), s2, max_distance), 0.0);
+        }
+    }
+
+    /**
+     * A query prepared for another value of n is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testQueryOtherN() {
+        NGramQuery query = new NGram(3).compile("ABCD");
+        new NGram(2).distance(query, "ABCE");
+    }
 }
@@ -26,7 +26,10 @@ package info.debatty.java.stringsimilarity;
 import static org.junit.Assert.assertEquals;
 
 import info.debatty.java.stringsimilarity.testutil.NullEmptyTests;
+import java.util.Random;
 import org.junit.Test;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+import static info.debatty.java.stringsimilarity.testutil.ReferenceDistances.osa;
 
 /**
  *
@@ -34,6 +37,8 @@ import org.junit.Test;
  */
 public class OptimalStringAlignmentTest {
 
+    private static final String ALPHABET = "abc";
+
     /**
      * Test of distance method, of class OptimalStringAlignment.
      */
@@ -59,4 +64,113 @@ public class OptimalStringAlignmentTest {
 
         NullEmptyTests.testDistance(instance);
     }
+
+    /**
+     * Strings with a common prefix and suffix give the same result as the
+     * full dynamic programming matrix.
+     */
+    @Test
+    public final void testAffixes() {
+        OptimalStringAlignment instance = new OptimalStringAlignment();
+        Random rand = new Random(1234);
+        for (int i = 0; i < 1000; i++) {
+            String prefix = randomString(rand, rand.nextInt(5), ALPHABET);
+            String suffix = randomString(rand, rand.nextInt(5), ALPHABET);
+            String s1 = prefix
+                    + randomString(rand, rand.nextInt(8), ALPHABET)
+                    + suffix;
+            String s2 = prefix
+                    + randomString(rand, rand.nextInt(8), ALPHABET)
+                    + suffix;
+
+            assertEquals(osa(s1, s2), instance.distance(s1, s2), 0.0);
+            assertEquals(osa(s2, s1), instance.distance(s2, s1), 0.0);
+        }
+    }
+
+    /**
+     * The bit-parallel algorithm gives the same result as the dynamic
+     * programming algorithm, for patterns that fit in one or several words.
+     */
+    @Test
+    public final void testBitParallel() {
+        OptimalStringAlignment instance = new OptimalStringAlignment();
+        Random rand = new Random(5678);
+        for (int i = 0; i < 1000; i++) {
+            String s1 = randomString(rand, rand.nextInt(200), ALPHABET);
+            String s2 = randomString(rand, rand.nextInt(200), ALPHABET);
+            int expected = osa(s1, s2);
+
+            assertEquals(expected, instance.distance(s1, s2), 0.0);
+            assertEquals(expected, instance.distance(s2, s1), 0.0);
+            assertEquals(expected,
+                    instance.distance(instance.compile(s1), s2), 0.0);
+            assertEquals(expected,
+                    instance.distance(instance.compile(s2), s1), 0.0);
+        }
+    }
+
+    /**
+     * With a limit, the result is the distance if it is smaller than the
+     * limit, and the limit otherwise. Long strings use the diagonal band.
+     */
+    @Test
+    public final void testLimit() {
+        OptimalStringAlignment instance = new OptimalStringAlignment();
+        Random rand = new Random(8765);
+        for (int i = 0; i < 2000; i++) {
+            String s1 = randomString(rand, 60 + rand.nextInt(150), ALPHABET);
+            String s2 = mutate(rand, s1, rand.nextInt(20));
+            int limit = rand.nextInt(30);
+            int expected = Math.min(osa(s1, s2), limit);
+            if (s1.equals(s2)) {
+                expected = 0;
+            }
+
+            assertEquals(expected, instance.distance(s1, s2, limit), 0.0);
+            assertEquals(expected, instance.distance(s2, s1, limit), 0.0);
+        }
+
+        assertEquals(3.0, instance.distance("CA", "ABC", 4), 0.0);
+        assertEquals(2.0, instance.distance("CA", "ABC", 2), 0.0);
+
+        // the limit also applies when one of the strings is empty
+        assertEquals(3.0, instance.distance("", "abcdef", 3), 0.0);
+        assertEquals(3.0, instance.distance("abcdef", "", 3), 0.0);
+        assertEquals(6.0, instance.distance("", "abcdef", 10), 0.0);
+    }
+
+    /**
+     * Apply random insertions, deletions, substitutions and transpositions.
+     */
+    private static String mutate(
+            final Random rand, final String s, final int edits) {
+        StringBuilder builder = new StringBuilder(s);
+        for (int i = 0; i < edits; i++) {
+            int pos = rand.nextInt(builder.length() + 1);
+            char c = (char) ('a' + rand.nextInt(3));
+            switch (rand.nextInt(4)) {
+                case 0:
+                    builder.insert(pos, c);
+                    break;
+                case 1:
+                    if (pos < builder.length()) {
+                        builder.deleteCharAt(pos);
+                    }
+                    break;
+                case 2:
+                    if (pos + 1 < builder.length()) {
+                        char tmp = builder.charAt(pos);
+                        builder.setCharAt(pos, builder.charAt(pos + 1));
+                        builder.setCharAt(pos + 1, tmp);
+                    }
+                    break;
+                default:
+                    if (pos < builder.length()) {
+                        builder.setCharAt(pos, c);
+                    }
+            }
+        }
+        return builder.toString();
+    }
 }
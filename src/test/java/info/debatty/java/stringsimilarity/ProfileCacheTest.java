@@ -0,0 +1,185 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Thibault Debatty
+ */
+public class ProfileCacheTest {
+
+    /**
+     * The cache does not change the results, and counts hits and misses.
+     */
+    @Test
+    public final void testHitsAndMisses() {
+        ProfileCache cache = new ProfileCache(1 << 20);
+        Jaccard cached = new Jaccard(3, ShingleHashing.HASH, cache);
+        Jaccard jaccard = new Jaccard(3);
+
+        assertEquals(jaccard.similarity("ABCDE", "ABCDF"),
+                cached.similarity("ABCDE", "ABCDF"), 0.0);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+
+        assertEquals(jaccard.similarity("ABCDE", "ABCDG"),
+                cached.similarity("ABCDE", "ABCDG"), 0.0);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(3, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    /**
+     * The weight of the cache never exceeds the budget, and the least
+     * recently used profiles are evicted first.
+     */
+    @Test
+    public final void testEviction() {
+        Cosine cosine = new Cosine(2);
+        String s = "some string";
+        long weight = ProfileCache.weight(s, cosine.getShingleProfile(s));
+
+        ProfileCache cache = new ProfileCache(3 * weight, 1);
+        Cosine cached = new Cosine(2, ShingleHashing.HASH, cache);
+        for (int i = 0; i < 1000; i++) {
+            cached.getShingleProfile("some strin" + (char) ('a' + i % 26));
+            assertTrue(cache.getWeight() <= cache.getMaxWeight());
+        }
+        assertEquals(3, cache.size());
+        assertTrue(cache.getEvictionCount() > 0);
+
+        // strings with the same weight as s
+        cached.getShingleProfile("some strin0");
+        cached.getShingleProfile("some strin1");
+        cached.getShingleProfile("some strin2");
+        cached.getShingleProfile("some strin0");
+
+        // "some strin1" is now the least recently used
+        cached.getShingleProfile("some strin3");
+        assertNull(cache.get(2, ShingleHashing.HASH, "some strin1"));
+        assertEquals(cosine.getShingleProfile("some strin0").size(),
+                cache.get(2, ShingleHashing.HASH, "some strin0").size());
+    }
+
+    /**
+     * Profiles larger than a stripe are not cached.
+     */
+    @Test
+    public final void testLargeProfile() {
+        ProfileCache cache = new ProfileCache(100, 1);
+        QGram qgram = new QGram(2, ShingleHashing.HASH, cache);
+        qgram.getShingleProfile("a string that is too large for the cache");
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * The cache can be used by several threads at the same time.
+     */
+    @Test
+    public final void testConcurrent() throws InterruptedException {
+        final ProfileCache cache = new ProfileCache(1 << 16, 4);
+        final SorensenDice cached =
+                new SorensenDice(3, ShingleHashing.HASH, cache);
+        final SorensenDice dice = new SorensenDice(3);
+        final AtomicReference<Throwable> error =
+                new AtomicReference<Throwable>();
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random rand = new Random(seed);
+                    try {
+                        for (int i = 0; i < 5000; i++) {
+                            String s1 = "string " + rand.nextInt(200);
+                            String s2 = "other " + rand.nextInt(200);
+                            assertEquals(dice.similarity(s1, s2),
+                                    cached.similarity(s1, s2), 0.0);
+                        }
+                    } catch (Throwable ex) {
+                        error.set(ex);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(error.get());
+        assertEquals(4 * 5000 * 2,
+                cache.getHitCount() + cache.getMissCount());
+        assertTrue(cache.getWeight() <= cache.getMaxWeight());
+    }
+
+    /**
+     * A cache can be shared between metrics with different k and hashing
+     * modes: each one gets its own profiles.
+     */
+    @Test
+    public final void testSharedCache() {
+        ProfileCache cache = new ProfileCache(1 << 20);
+        String s = "ABCDEFGHIJ";
+        ShingleBased[] metrics = {
+            new Jaccard(2, ShingleHashing.HASH, cache),
+            new Jaccard(3, ShingleHashing.HASH, cache),
+            new Jaccard(6, ShingleHashing.HASH, cache),
+            new Jaccard(6, ShingleHashing.ROLLING_HASH, cache),
+            new Jaccard(6, ShingleHashing.VERIFIED_ROLLING_HASH, cache),
+            new Cosine(2, ShingleHashing.ROLLING_HASH, cache),
+        };
+
+        for (int i = 0; i < 2; i++) {
+            for (ShingleBased metric : metrics) {
+                ShingleProfile profile = metric.getShingleProfile(s);
+                assertEquals(metric.getK(), profile.getK());
+                assertArrayEquals(
+                        new Jaccard(metric.getK(), metric.getHashing())
+                                .getShingleProfile(s).keys(),
+                        profile.keys());
+            }
+        }
+
+        // profiles with k = 2 are exact, whatever the hashing mode, and
+        // VERIFIED_ROLLING_HASH gives the same keys as ROLLING_HASH
+        assertEquals(4, cache.size());
+        assertEquals(4, cache.getMissCount());
+        assertEquals(8, cache.getHitCount());
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+
+/**
+ *
+ * @author Thibault Debatty
+ */
+public class ProfileStoreTest {
+
+    private static final String ALPHABET = "abcdefgh \t";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The four metrics give the same values with the stored profiles as with
+     * the compact profiles, including when the store is mapped by small
+     * segments.
+     */
+    @Test
+    public final void testSameValues() throws IOException {
+        Random rand = new Random(4242);
+        for (int i = 0; i < 40; i++) {
+            int k = 1 + rand.nextInt(7);
+            ShingleHashing[] values = ShingleHashing.values();
+            ShingleHashing hashing = values[rand.nextInt(values.length)];
+            int segment_shift = ProfileStore.DEFAULT_SEGMENT_SHIFT;
+            if (rand.nextBoolean()) {
+                // segments of 1 KB
+                segment_shift = ProfileStore.MIN_SEGMENT_SHIFT;
+            }
+
+            Cosine cosine = new Cosine(k, hashing);
+            Jaccard jaccard = new Jaccard(k, hashing);
+            SorensenDice dice = new SorensenDice(k, hashing);
+            QGram qgram = new QGram(k, hashing);
+
+            File file = folder.newFile();
+            ProfileStoreWriter writer =
+                    new ProfileStoreWriter(file, cosine, segment_shift);
+            List<ShingleProfile> profiles = new ArrayList<ShingleProfile>();
+            for (int j = 0; j < 50; j++) {
+                String s = randomString(rand, rand.nextInt(80), ALPHABET);
+                profiles.add(cosine.getShingleProfile(s));
+                assertEquals(j, writer.add(s));
+            }
+            writer.close();
+
+            ProfileStore store = new ProfileStore(file);
+            assertEquals(profiles.size(), store.size());
+            assertEquals(k, store.getK());
+
+            for (int j = 0; j < store.size(); j++) {
+                ShingleProfile expected = profiles.get(j);
+                ShingleProfile actual = store.getProfile(j);
+                assertArrayEquals(expected.keys(), actual.keys());
+                assertArrayEquals(expected.counts(), actual.counts());
+                assertEquals(expected.size(), store.getProfileSize(j));
+                assertEquals(cosine.getCosineProfile(expected).getNorm(),
+                        store.getNorm(j), 0.0);
+            }
+
+            for (int pair = 0; pair < 200; pair++) {
+                int i1 = rand.nextInt(store.size());
+                int i2 = rand.nextInt(store.size());
+                ShingleProfile p1 = profiles.get(i1);
+                ShingleProfile p2 = profiles.get(i2);
+
+                assertEquals(cosine.similarity(p1, p2),
+                        cosine.similarity(store, i1, i2), 0.0);
+                assertEquals(cosine.similarity(p1, p2),
+                        cosine.similarity(p1, store, i2), 0.0);
+                assertEquals(cosine.similarity(p1, p2),
+                        cosine.similarity(
+                                cosine.getCosineProfile(p1), store, i2),
+                        0.0);
+                assertEquals(jaccard.similarity(p1, p2),
+                        jaccard.similarity(store, i1, i2), 0.0);
+                assertEquals(jaccard.similarity(p1, p2),
+                        jaccard.similarity(p1, store, i2), 0.0);
+                assertEquals(dice.similarity(p1, p2),
+                        dice.similarity(store, i1, i2), 0.0);
+                assertEquals(dice.similarity(p1, p2),
+                        dice.similarity(p1, store, i2), 0.0);
+                assertEquals(qgram.distance(p1, p2),
+                        qgram.distance(store, i1, i2), 0.0);
+                assertEquals(qgram.distance(p1, p2),
+                        qgram.distance(p1, store, i2), 0.0);
+            }
+        }
+    }
+
+    /**
+     * A profile larger than a segment can not be stored.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testLargeProfile() throws IOException {
+        Jaccard jaccard = new Jaccard(5);
+        ProfileStoreWriter writer = new ProfileStoreWriter(
+                folder.newFile(), jaccard, ProfileStore.MIN_SEGMENT_SHIFT);
+        try {
+            writer.add(randomString(new Random(1), 2000, ALPHABET));
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * A profile built with another value of k can not be stored, nor
+     * compared with the stored profiles.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testIncompatible() throws IOException {
+        File file = folder.newFile();
+        ProfileStoreWriter writer =
+                new ProfileStoreWriter(file, new Jaccard(2));
+        writer.add("ABCD");
+        writer.close();
+
+        new Jaccard(3).similarity(new Jaccard(3).getShingleProfile("ABCD"),
+                new ProfileStore(file), 0);
+    }
+
+    /**
+     * A store built with another value of k can not be used by the metric.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testIncompatibleStore() throws IOException {
+        File file = folder.newFile();
+        ProfileStoreWriter writer =
+                new ProfileStoreWriter(file, new Jaccard(2));
+        writer.add("ABCD");
+        writer.add("ABCE");
+        writer.close();
+
+        new Jaccard(3).similarity(new ProfileStore(file), 0, 1);
+    }
+
+    /**
+     * A store built with another hashing mode can not be used by the metric
+     * (except for exact profiles, and for VERIFIED_ROLLING_HASH and
+     * ROLLING_HASH that give the same keys).
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testIncompatibleHashing() throws IOException {
+        File file = folder.newFile();
+        ProfileStoreWriter writer = new ProfileStoreWriter(
+                file, new QGram(6, ShingleHashing.ROLLING_HASH));
+        writer.add("ABCDEFGH");
+        writer.add("ABCDEFGI");
+        writer.close();
+        ProfileStore store = new ProfileStore(file);
+
+        QGram verified = new QGram(6, ShingleHashing.VERIFIED_ROLLING_HASH);
+        assertEquals(
+                verified.distance("ABCDEFGH", "ABCDEFGI"),
+                verified.distance(store, 0, 1),
+                0.0);
+
+        new QGram(6, ShingleHashing.HASH).distance(store, 0, 1);
+    }
+
+    /**
+     * The first key is zigzag encoded, so a small key only takes a few
+     * bytes.
+     */
+    @Test
+    public final void testSmallKeys() throws IOException {
+        File file = folder.newFile();
+        ProfileStoreWriter writer =
+                new ProfileStoreWriter(file, new QGram(1));
+        writer.add("a");
+        writer.close();
+
+        // header, norm, size, length of the keys, key ('a' zigzag encoded
+        // takes 2 bytes), count, and index
+        assertEquals(ProfileStore.HEADER_SIZE + Double.BYTES + 1 + 1 + 2 + 1
+                + Long.BYTES, file.length());
+        assertArrayEquals(new long[] {'a'},
+                new ProfileStore(file).getProfile(0).keys());
+    }
+
+    /**
+     * A file that was not written by a ProfileStoreWriter (or that was not
+     * closed) can not be opened.
+     */
+    @Test(expected = IOException.class)
+    public final void testNotAStore() throws IOException {
+        File file = folder.newFile();
+        OutputStream out = new FileOutputStream(file);
+        out.write(new byte[100]);
+        out.close();
+        new ProfileStore(file);
+    }
+}
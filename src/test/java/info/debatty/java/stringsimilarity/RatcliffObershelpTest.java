@@ -25,8 +25,12 @@
 package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.testutil.NullEmptyTests;
+import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.letters;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+import static info.debatty.java.stringsimilarity.testutil.ReferenceDistances.ratcliffObershelp;
 
 /**
  *
@@ -121,4 +125,27 @@ public class RatcliffObershelpTest {
 
         // TODO: regular (non-null/empty) distance tests
     }
+
+    /**
+     * The suffix automaton implementation selects the same matches as the
+     * original implementation.
+     */
+    @Test
+    public final void testSameValues() {
+        RatcliffObershelp instance = new RatcliffObershelp();
+        Random rand = new Random(14142);
+        for (int i = 0; i < 2000; i++) {
+            String alphabet = letters(1 + rand.nextInt(10));
+            String s1 = randomString(rand, rand.nextInt(60), alphabet);
+            String s2 = randomString(rand, rand.nextInt(60), alphabet);
+            if (rand.nextBoolean()) {
+                s2 = s1.substring(0, rand.nextInt(s1.length() + 1)) + s2;
+            }
+
+            assertEquals(ratcliffObershelp(s1, s2),
+                    instance.similarity(s1, s2), 0.0);
+            assertEquals(ratcliffObershelp(s2, s1),
+                    instance.similarity(s2, s1), 0.0);
+        }
+    }
 }
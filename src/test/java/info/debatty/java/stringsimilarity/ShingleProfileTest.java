@@ -0,0 +1,295 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+
+/**
+ *
+ * @author Thibault Debatty
+ */
+public class ShingleProfileTest {
+
+    private static final String ALPHABET = "abcd \t\n\r";
+
+    /**
+     * The compact profile holds the same counts as the Map profile, and the
+     * four metrics give the same values with both profiles.
+     */
+    @Test
+    public final void testSameValues() {
+        Random rand = new Random(11235);
+        for (int i = 0; i < 2000; i++) {
+            int k = 1 + rand.nextInt(7);
+            ShingleHashing hashing = randomHashing(rand);
+            String s1 = randomString(rand, rand.nextInt(50), ALPHABET);
+            String s2 = randomString(rand, rand.nextInt(50), ALPHABET);
+
+            Cosine cosine = new Cosine(k, hashing);
+            Map<String, Integer> map1 = cosine.getProfile(s1);
+            Map<String, Integer> map2 = cosine.getProfile(s2);
+            ShingleProfile profile1 = cosine.getShingleProfile(s1);
+            ShingleProfile profile2 = cosine.getShingleProfile(s2);
+
+            assertEquals(k <= 4, profile1.isExact());
+            assertEquals(sortedCounts(map1), sortedCounts(profile1));
+
+            assertEquals(cosine.similarity(map1, map2),
+                    cosine.similarity(profile1, profile2), 0.0);
+            assertEquals(new QGram(k).distance(map1, map2),
+                    new QGram(k, hashing).distance(profile1, profile2), 0.0);
+
+            Set<String> union = new HashSet<String>(map1.keySet());
+            union.addAll(map2.keySet());
+            int inter = map1.size() + map2.size() - union.size();
+            assertEquals(1.0 * inter / union.size(),
+                    new Jaccard(k, hashing).similarity(profile1, profile2),
+                    0.0);
+            assertEquals(2.0 * inter / (map1.size() + map2.size()),
+                    new SorensenDice(k, hashing).similarity(
+                            profile1, profile2),
+                    0.0);
+        }
+    }
+
+    /**
+     * Whitespace is collapsed like the regular expression \s+.
+     */
+    @Test
+    public final void testCollapseSpaces() {
+        Random rand = new Random(81321);
+        for (int i = 0; i < 1000; i++) {
+            String s = randomString(rand, rand.nextInt(30), ALPHABET)
+                    + "\u000B\f";
+            char[] dest = new char[s.length()];
+            int length = ShingleBased.collapseSpaces(s, dest);
+            assertEquals(s.replaceAll("\\s+", " "),
+                    new String(dest, 0, length));
+        }
+    }
+
+    /**
+     * The profile computed from a stream, read by chunks of random sizes, is
+     * the same as the profile of the whole string.
+     */
+    @Test
+    public final void testStreaming() throws IOException {
+        Charset utf8 = Charset.forName("UTF-8");
+        Random rand = new Random(31337);
+        for (int i = 0; i < 500; i++) {
+            int k = 1 + rand.nextInt(12);
+            String s = randomString(rand, rand.nextInt(200), ALPHABET)
+                    + "\u00e9\u4e2d";
+            ShingleBased shingling = new QGram(k, randomHashing(rand));
+            ShingleProfile expected = shingling.getShingleProfile(s);
+
+            assertSame(expected, shingling.getShingleProfile(
+                    new ChunkedReader(s, rand)));
+            assertSame(expected, shingling.getShingleProfile(
+                    new ByteArrayInputStream(s.getBytes(utf8)), utf8));
+            assertSame(expected, shingling.getShingleProfile(
+                    Channels.newChannel(
+                            new ByteArrayInputStream(s.getBytes(utf8))),
+                    utf8));
+        }
+    }
+
+    /**
+     * Malformed input is replaced in the same way when it is read from a
+     * stream or from a channel.
+     */
+    @Test
+    public final void testMalformedInput() throws IOException {
+        Charset utf8 = Charset.forName("UTF-8");
+        byte[] bytes = {'a', 'b', 'c', (byte) 0xC3, 'd', 'e', 'f'};
+        QGram qgram = new QGram(2);
+
+        ShingleProfile expected =
+                qgram.getShingleProfile(new String(bytes, utf8));
+        assertEquals(6, expected.size());
+        assertSame(expected, qgram.getShingleProfile(
+                new ByteArrayInputStream(bytes), utf8));
+        assertSame(expected, qgram.getShingleProfile(
+                Channels.newChannel(new ByteArrayInputStream(bytes)),
+                utf8));
+    }
+
+    /**
+     * The rolling hash gives each shingle the same key as the polynomial
+     * hash computed directly.
+     */
+    @Test
+    public final void testRollingHash() {
+        BigInteger mod = BigInteger.ONE.shiftLeft(61).subtract(BigInteger.ONE);
+        BigInteger base = BigInteger.valueOf(0x0B873593CC9E2D51L);
+        Random rand = new Random(27644);
+        for (int i = 0; i < 200; i++) {
+            int k = 5 + rand.nextInt(12);
+            String s = randomString(rand, rand.nextInt(100), ALPHABET)
+                    + (char) rand.nextInt(Character.MAX_VALUE + 1);
+            String collapsed = s.replaceAll("\\s+", " ");
+
+            List<Long> expected = new ArrayList<Long>();
+            for (int start = 0; start + k <= collapsed.length(); start++) {
+                BigInteger hash = BigInteger.ZERO;
+                for (int j = start; j < start + k; j++) {
+                    hash = hash.multiply(base)
+                            .add(BigInteger.valueOf(collapsed.charAt(j)))
+                            .mod(mod);
+                }
+                expected.add(hash.longValue());
+            }
+
+            Shingler shingler = new Shingler(k, ShingleHashing.ROLLING_HASH);
+            List<Long> actual = new ArrayList<Long>();
+            for (int j = 0; j < s.length(); j++) {
+                if (shingler.push(s.charAt(j))) {
+                    actual.add(shingler.key());
+                }
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * With verification, a key used for two different shingles is detected.
+     */
+    @Test(expected = IllegalStateException.class)
+    public final void testVerifiedCollision() {
+        ShingleCounter counter = new ShingleCounter(3, true);
+        counter.add(42, "abc".toCharArray());
+        counter.add(42, "abc".toCharArray());
+        counter.add(42, "abd".toCharArray());
+    }
+
+    /**
+     * Verification does not change the profile.
+     */
+    @Test
+    public final void testVerified() {
+        String s = "A large document, with     some repeated words, "
+                + "and some other repeated words.";
+        ShingleProfile rolling =
+                new Jaccard(8, ShingleHashing.ROLLING_HASH)
+                        .getShingleProfile(s);
+        ShingleProfile verified =
+                new Jaccard(8, ShingleHashing.VERIFIED_ROLLING_HASH)
+                        .getShingleProfile(s);
+        assertSame(rolling, verified);
+        assertEquals(ShingleHashing.ROLLING_HASH, verified.getHashing());
+    }
+
+    /**
+     * Profiles of long shingles built with different hashing modes can not
+     * be compared.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testIncompatibleHashing() {
+        new Jaccard(5).similarity(
+                new Jaccard(5).getShingleProfile("ABCDEFG"),
+                new Jaccard(5, ShingleHashing.ROLLING_HASH)
+                        .getShingleProfile("ABCDEFG"));
+    }
+
+    /**
+     * Profiles built with different values of k can not be compared.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testIncompatible() {
+        Jaccard jaccard = new Jaccard(2);
+        jaccard.similarity(
+                jaccard.getShingleProfile("ABCD"),
+                new Jaccard(3).getShingleProfile("ABCD"));
+    }
+
+    private static void assertSame(
+            final ShingleProfile expected, final ShingleProfile actual) {
+        assertArrayEquals(expected.keys(), actual.keys());
+        assertArrayEquals(expected.counts(), actual.counts());
+    }
+
+    /**
+     * Reader that returns the characters of a string by chunks of random
+     * sizes.
+     */
+    private static class ChunkedReader extends Reader {
+
+        private final StringReader reader;
+        private final Random rand;
+
+        ChunkedReader(final String s, final Random rand) {
+            this.reader = new StringReader(s);
+            this.rand = rand;
+        }
+
+        @Override
+        public int read(final char[] buffer, final int offset,
+                        final int length) throws IOException {
+            return reader.read(
+                    buffer, offset, Math.min(length, 1 + rand.nextInt(5)));
+        }
+
+        @Override
+        public void close() {
+            reader.close();
+        }
+    }
+
+    private static ShingleHashing randomHashing(final Random rand) {
+        ShingleHashing[] values = ShingleHashing.values();
+        return values[rand.nextInt(values.length)];
+    }
+
+    private static List<Integer> sortedCounts(final Map<String, Integer> map) {
+        List<Integer> counts = new ArrayList<Integer>(map.values());
+        Collections.sort(counts);
+        return counts;
+    }
+
+    private static List<Integer> sortedCounts(final ShingleProfile profile) {
+        List<Integer> counts = new ArrayList<Integer>();
+        for (int count : profile.counts()) {
+            counts.add(count);
+        }
+        Collections.sort(counts);
+        return counts;
+    }
+}
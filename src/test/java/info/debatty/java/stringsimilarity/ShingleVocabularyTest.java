@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+
+/**
+ *
+ * @author Thibault Debatty
+ */
+public class ShingleVocabularyTest {
+
+    private static final String ALPHABET = "abcd";
+
+    /**
+     * The four metrics give the same values with sparse vectors as with the
+     * Map profiles.
+     */
+    @Test
+    public final void testSameValues() {
+        Random rand = new Random(24681);
+        for (int i = 0; i < 1000; i++) {
+            int k = 1 + rand.nextInt(5);
+            ShingleVocabulary vocabulary = new ShingleVocabulary();
+            String s1 = randomString(rand, rand.nextInt(50), ALPHABET);
+            String s2 = randomString(rand, rand.nextInt(50), ALPHABET);
+
+            Cosine cosine = new Cosine(k);
+            Map<String, Integer> map1 = cosine.getProfile(s1);
+            Map<String, Integer> map2 = cosine.getProfile(s2);
+            ShingleVector vector1 = vocabulary.vector(map1);
+            ShingleVector vector2 = vocabulary.vector(cosine, s2);
+
+            assertEquals(map1.size(), vector1.size());
+            assertEquals(cosine.similarity(map1, map2),
+                    cosine.similarity(vector1, vector2), 0.0);
+            assertEquals(new QGram(k).distance(map1, map2),
+                    new QGram(k).distance(vector1, vector2), 0.0);
+
+            Set<String> union = new HashSet<String>(map1.keySet());
+            union.addAll(map2.keySet());
+            assertEquals(union.size(), vocabulary.size());
+            int inter = map1.size() + map2.size() - union.size();
+            assertEquals(1.0 * inter / union.size(),
+                    new Jaccard(k).similarity(vector1, vector2), 0.0);
+            assertEquals(2.0 * inter / (map1.size() + map2.size()),
+                    new SorensenDice(k).similarity(vector1, vector2), 0.0);
+        }
+    }
+
+    /**
+     * Ids are dense, even when shingles are added by several threads.
+     */
+    @Test
+    public final void testConcurrentIds() throws InterruptedException {
+        final ShingleVocabulary vocabulary = new ShingleVocabulary();
+        final int shingles = 2000;
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < shingles; i++) {
+                        vocabulary.id("s" + i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(shingles, vocabulary.size());
+        Set<Integer> ids = new HashSet<Integer>();
+        for (int i = 0; i < shingles; i++) {
+            int id = vocabulary.id("s" + i);
+            assertTrue(id >= 0 && id < shingles);
+            ids.add(id);
+        }
+        assertEquals(shingles, ids.size());
+    }
+
+    /**
+     * Vectors from different vocabularies can not be compared.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testIncompatible() {
+        Jaccard jaccard = new Jaccard(2);
+        jaccard.similarity(
+                new ShingleVocabulary().vector(jaccard, "ABCD"),
+                new ShingleVocabulary().vector(jaccard, "ABCD"));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package info.debatty.java.stringsimilarity;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Thibault Debatty
+ */
+public class SortedMergeTest {
+
+    /**
+     * The galloping search gives the same intersection and dot product as a
+     * naive computation, for arrays of very different sizes.
+     */
+    @Test
+    public final void testSkewed() {
+        Random rand = new Random(1618);
+        for (int i = 0; i < 1000; i++) {
+            int size1 = rand.nextInt(10);
+            int size2 = rand.nextInt(2000);
+            if (rand.nextBoolean()) {
+                int swap = size1;
+                size1 = size2;
+                size2 = swap;
+            }
+            int range = 1 + rand.nextInt(5000);
+
+            long[] keys1 = randomKeys(rand, size1, range);
+            long[] keys2 = randomKeys(rand, size2, range);
+            int[] counts1 = randomCounts(rand, keys1.length);
+            int[] counts2 = randomCounts(rand, keys2.length);
+
+            int inter = 0;
+            double dot = 0;
+            for (int i1 = 0; i1 < keys1.length; i1++) {
+                for (int i2 = 0; i2 < keys2.length; i2++) {
+                    if (keys1[i1] == keys2[i2]) {
+                        inter++;
+                        dot += 1.0 * counts1[i1] * counts2[i2];
+                    }
+                }
+            }
+
+            assertEquals(inter, SortedMerge.intersection(keys1, keys2));
+            assertEquals(dot, SortedMerge.dotProduct(
+                    keys1, counts1, keys2, counts2), 0.0);
+
+            int[] ids1 = toInts(keys1);
+            int[] ids2 = toInts(keys2);
+            assertEquals(inter, SortedMerge.intersection(ids1, ids2));
+            assertEquals(dot, SortedMerge.dotProduct(
+                    ids1, counts1, ids2, counts2), 0.0);
+        }
+    }
+
+    /**
+     * The galloping search returns the first key that is not smaller than
+     * the searched key.
+     */
+    @Test
+    public final void testGallop() {
+        Random rand = new Random(2718);
+        for (int i = 0; i < 1000; i++) {
+            long[] keys = randomKeys(rand, rand.nextInt(300), 1000);
+            int from = rand.nextInt(keys.length + 1);
+            long key = rand.nextInt(1100) - 50;
+
+            int expected = from;
+            while (expected < keys.length && keys[expected] < key) {
+                expected++;
+            }
+            assertEquals(expected, SortedMerge.gallop(keys, from, key));
+            assertEquals(expected,
+                    SortedMerge.gallop(toInts(keys), from, (int) key));
+        }
+    }
+
+    private static long[] randomKeys(
+            final Random rand, final int size, final int range) {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = rand.nextInt(range);
+        }
+        Arrays.sort(keys);
+
+        // remove duplicates
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || keys[distinct - 1] != keys[i]) {
+                keys[distinct] = keys[i];
+                distinct++;
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    private static int[] randomCounts(final Random rand, final int size) {
+        int[] counts = new int[size];
+        for (int i = 0; i < size; i++) {
+            counts[i] = 1 + rand.nextInt(10);
+        }
+        return counts;
+    }
+
+    private static int[] toInts(final long[] keys) {
+        int[] ints = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ints[i] = (int) keys[i];
+        }
+        return ints;
+    }
+}
@@ -1,9 +1,12 @@
 package info.debatty.java.stringsimilarity;
 
 import info.debatty.java.stringsimilarity.testutil.NullEmptyTests;
+import java.util.Random;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+import static info.debatty.java.stringsimilarity.testutil.ReferenceDistances.weightedLevenshtein;
 
 public class WeightedLevenshteinTest {
     @Test
@@ -96,4 +99,144 @@ public class WeightedLevenshteinTest {
 
         NullEmptyTests.testDistance(instance);
     }
-}
\ No newline at end of file
+
+    /**
+     * Precomputed cost tables give the same distances as the cost
+     * interfaces, including for characters that are not in the table.
+     */
+    @Test
+    public void testCostTable() {
+        CharacterSubstitutionInterface charsub =
+                new CharacterSubstitutionInterface() {
+            public double cost(char c1, char c2) {
+                return 0.1 + ((c1 * 31 + c2) % 10) / 10.0;
+            }
+        };
+        CharacterInsDelInterface charchange = new CharacterInsDelInterface() {
+            public double deletionCost(char c) {
+                return 0.5 + (c % 5) / 10.0;
+            }
+
+            public double insertionCost(char c) {
+                return 0.5 + (c % 7) / 10.0;
+            }
+        };
+
+        String alphabet = "abcd\u00e9\u0436\u4e2d";
+        String chars = alphabet + "\u00e8\u0437\u4e2e";
+
+        WeightedLevenshtein[][] pairs = {
+            {new WeightedLevenshtein(charsub),
+                new WeightedLevenshtein(new CostTable(charsub))},
+            {new WeightedLevenshtein(charsub, charchange),
+                new WeightedLevenshtein(new CostTable(charsub, charchange))},
+            {new WeightedLevenshtein(charsub, charchange),
+                new WeightedLevenshtein(
+                        new CostTable(charsub, charchange, alphabet))},
+        };
+
+        Random rand = new Random(97531);
+        for (int i = 0; i < 1000; i++) {
+            String s1 = randomString(rand, rand.nextInt(30), chars);
+            String s2 = randomString(rand, rand.nextInt(30), chars);
+
+            for (WeightedLevenshtein[] pair : pairs) {
+                assertEquals(
+                        pair[0].distance(s1, s2), pair[1].distance(s1, s2),
+                        0.0);
+                assertEquals(
+                        pair[0].distance(s1, s2, 3.0),
+                        pair[1].distance(s1, s2, 3.0),
+                        0.0);
+            }
+        }
+    }
+
+    /**
+     * With a limit, the result is the distance if it is smaller than the
+     * limit, and the limit otherwise.
+     */
+    @Test
+    public void testLimit() {
+        CharacterSubstitutionInterface charsub =
+                new CharacterSubstitutionInterface() {
+            public double cost(char c1, char c2) {
+                return 0.3 + ((c1 + c2) % 3) / 2.0;
+            }
+        };
+        CharacterInsDelInterface charchange = new CharacterInsDelInterface() {
+            public double deletionCost(char c) {
+                return 0.4 + (c % 3) / 4.0;
+            }
+
+            public double insertionCost(char c) {
+                return 0.7 + (c % 2) / 2.0;
+            }
+        };
+
+        WeightedLevenshtein uniform = new WeightedLevenshtein(charsub);
+        WeightedLevenshtein weighted =
+                new WeightedLevenshtein(charsub, charchange);
+
+        Random rand = new Random(11223);
+        for (int i = 0; i < 2000; i++) {
+            String s1 = randomString(rand, 1 + rand.nextInt(40), "abcd");
+            String s2 = randomString(rand, 1 + rand.nextInt(40), "abcd");
+            if (s1.equals(s2)) {
+                continue;
+            }
+            double limit = rand.nextDouble() * 20;
+
+            double expected = weightedLevenshtein(s1, s2, charsub, null);
+            assertEquals(expected, uniform.distance(s1, s2), 1E-9);
+            assertEquals(Math.min(expected, limit),
+                    uniform.distance(s1, s2, limit), 1E-9);
+
+            expected = weightedLevenshtein(s1, s2, charsub, charchange);
+            assertEquals(expected, weighted.distance(s1, s2), 1E-9);
+            assertEquals(Math.min(expected, limit),
+                    weighted.distance(s1, s2, limit), 1E-9);
+        }
+    }
+
+    /**
+     * The distance to an empty string is the sum of the insertion (or
+     * deletion) costs, and is also bounded by the limit.
+     */
+    @Test
+    public void testEmpty() {
+        CharacterSubstitutionInterface charsub =
+                new CharacterSubstitutionInterface() {
+            public double cost(char c1, char c2) {
+                return 1.0;
+            }
+        };
+        CharacterInsDelInterface charchange = new CharacterInsDelInterface() {
+            public double deletionCost(char c) {
+                return 0.25;
+            }
+
+            public double insertionCost(char c) {
+                return 0.5;
+            }
+        };
+
+        WeightedLevenshtein[] instances = {
+            new WeightedLevenshtein(charsub, charchange),
+            new WeightedLevenshtein(new CostTable(charsub, charchange)),
+            new WeightedLevenshtein(
+                    new CostTable(charsub, charchange, "ab")),
+        };
+
+        for (WeightedLevenshtein instance : instances) {
+            assertEquals(2.0, instance.distance("", "abcd"), 0.0);
+            assertEquals(1.0, instance.distance("abcd", ""), 0.0);
+            assertEquals(1.5, instance.distance("", "abcd", 1.5), 0.0);
+            assertEquals(0.5, instance.distance("abcd", "", 0.5), 0.0);
+        }
+
+        WeightedLevenshtein uniform = new WeightedLevenshtein(charsub);
+        assertEquals(4.0, uniform.distance("", "abcd"), 0.0);
+        assertEquals(2.0, uniform.distance("abcd", "", 2.0), 0.0);
+    }
+}
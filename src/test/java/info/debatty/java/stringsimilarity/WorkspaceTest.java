@@ -0,0 +1,249 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 Thibault Debatty.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package info.debatty.java.stringsimilarity;
+
+import info.debatty.java.stringsimilarity.interfaces.StringDistance;
+import java.lang.management.ManagementFactory;
+import org.junit.Test;
+
+import static info.debatty.java.stringsimilarity.testutil.ReferenceDistances.weightedLevenshtein;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Once the workspace has grown, the edit distances should not allocate
+ * memory anymore.
+ *
+ * @author Thibault Debatty
+ */
+public class WorkspaceTest {
+
+    private static final int WARMUP = 5000;
+    private static final int CALLS = 5000;
+
+    // ints, longs, floats, doubles and chars
+    private static final int TYPES = 5;
+
+    private static final String S1 =
+            "The quick brown fox jumps over the lazy dog, "
+            + "and then runs away into the forest to hide from the hunters";
+    private static final String S2 =
+            "The quikc brown fox jumped over a lazy dog, "
+            + "then ran away in the forest to hide from hunters!";
+
+    @Test
+    public final void testLevenshtein() {
+        assertNoAllocation("Levenshtein", new Levenshtein());
+
+        // banded version
+        final Levenshtein levenshtein = new Levenshtein();
+        assertNoAllocation("Levenshtein (banded)", new StringDistance() {
+            public double distance(final String s1, final String s2) {
+                return levenshtein.distance(s1, s2, 20);
+            }
+        });
+    }
+
+    @Test
+    public final void testWeightedLevenshtein() {
+        assertNoAllocation("WeightedLevenshtein", new WeightedLevenshtein(
+                new CharacterSubstitutionInterface() {
+                    public double cost(final char c1, final char c2) {
+                        return 1.0;
+                    }
+                }));
+    }
+
+    @Test
+    public final void testOptimalStringAlignment() {
+        assertNoAllocation("OptimalStringAlignment",
+                new OptimalStringAlignment());
+
+        // banded version
+        final OptimalStringAlignment osa = new OptimalStringAlignment();
+        assertNoAllocation("OptimalStringAlignment (banded)",
+                new StringDistance() {
+                    public double distance(
+                            final String s1, final String s2) {
+                        return osa.distance(s1, s2, 20);
+                    }
+                });
+    }
+
+    @Test
+    public final void testDamerau() {
+        assertNoAllocation("Damerau", new Damerau());
+    }
+
+    @Test
+    public final void testLongestCommonSubsequence() {
+        assertNoAllocation("LongestCommonSubsequence",
+                new LongestCommonSubsequence());
+        assertNoAllocation("MetricLCS", new MetricLCS());
+    }
+
+    @Test
+    public final void testJaroWinkler() {
+        assertNoAllocation("JaroWinkler", new JaroWinkler());
+    }
+
+    @Test
+    public final void testNGram() {
+        assertNoAllocation("NGram", new NGram());
+    }
+
+    /**
+     * A cost function can call another metric: this metric does not get
+     * the default workspace, which is already in use.
+     */
+    @Test
+    public final void testReentrant() {
+        final WeightedLevenshtein inner = new WeightedLevenshtein(
+                new CharacterSubstitutionInterface() {
+                    public double cost(final char c1, final char c2) {
+                        return 1.0;
+                    }
+                });
+        CharacterSubstitutionInterface charsub =
+                new CharacterSubstitutionInterface() {
+                    public double cost(final char c1, final char c2) {
+                        // uses the buffers of the outer computation, if it
+                        // gets the same workspace
+                        return inner.distance(
+                                c1 + "xyz" + c2, c2 + "xyz" + c1) / 4;
+                    }
+                };
+
+        assertEquals(weightedLevenshtein(S1, S2, charsub, null),
+                new WeightedLevenshtein(charsub).distance(S1, S2),
+                1E-9);
+
+        // the default workspace is available again
+        Workspace local = Workspace.local();
+        assertSame(local, Workspace.local());
+        boolean busy = local.enter();
+        assertNotSame(local, Workspace.local());
+        local.leave(busy);
+        assertSame(local, Workspace.local());
+    }
+
+    /**
+     * An explicit workspace gives the same results as the default one.
+     */
+    @Test
+    public final void testExplicitWorkspace() {
+        Workspace workspace = new Workspace();
+        assertEquals(
+                new Levenshtein().distance(S1, S2),
+                new Levenshtein().distance(
+                        S1, S2, Integer.MAX_VALUE, workspace),
+                0.0);
+        assertEquals(
+                new Damerau().distance(S1, S2),
+                new Damerau().distance(S1, S2, workspace),
+                0.0);
+        assertEquals(
+                new NGram().distance(S1, S2),
+                new NGram().distance(S1, S2, workspace),
+                0.0);
+    }
+
+    /**
+     * After the warmup, the computations reuse the same buffers (on every
+     * JVM), and allocate no memory (on the JVMs that can measure it).
+     */
+    private static void assertNoAllocation(
+            final String label, final StringDistance instance) {
+        double sum = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sum += instance.distance(S1, S2);
+        }
+
+        Object[] buffers = buffers(Workspace.local());
+        com.sun.management.ThreadMXBean bean = allocationBean();
+        long thread = Thread.currentThread().getId();
+        long before = 0;
+        if (bean != null) {
+            before = bean.getThreadAllocatedBytes(thread);
+        }
+
+        for (int i = 0; i < CALLS; i++) {
+            sum += instance.distance(S1, S2);
+        }
+
+        long allocated = 0;
+        if (bean != null) {
+            allocated = bean.getThreadAllocatedBytes(thread) - before;
+            System.out.println(label + " : "
+                    + allocated + " bytes for " + CALLS + " calls");
+        }
+
+        assertTrue(sum > 0);
+        Object[] after = buffers(Workspace.local());
+        for (int i = 0; i < buffers.length; i++) {
+            assertSame(label + " reallocated a buffer", buffers[i], after[i]);
+        }
+        assertTrue(
+                "Allocated " + allocated + " bytes for " + CALLS + " calls",
+                allocated < CALLS);
+    }
+
+    /**
+     * The current buffers of the workspace (they are not resized).
+     */
+    private static Object[] buffers(final Workspace workspace) {
+        Object[] buffers = new Object[Workspace.BUFFERS * TYPES];
+        for (int i = 0; i < Workspace.BUFFERS; i++) {
+            buffers[TYPES * i] = workspace.ints(i, 0);
+            buffers[TYPES * i + 1] = workspace.longs(i, 0);
+            buffers[TYPES * i + 2] = workspace.floats(i, 0);
+            buffers[TYPES * i + 3] = workspace.doubles(i, 0);
+            buffers[TYPES * i + 4] = workspace.chars(i, 0);
+        }
+        return buffers;
+    }
+
+    /**
+     * The bean that measures the memory allocated by a thread, or null if
+     * the JVM can not measure it.
+     */
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        java.lang.management.ThreadMXBean bean =
+                ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+
+        com.sun.management.ThreadMXBean sun_bean =
+                (com.sun.management.ThreadMXBean) bean;
+        if (!sun_bean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        sun_bean.setThreadAllocatedMemoryEnabled(true);
+        return sun_bean;
+    }
+}
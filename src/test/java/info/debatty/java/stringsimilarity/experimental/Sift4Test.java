@@ -24,8 +24,13 @@
 
 package info.debatty.java.stringsimilarity.experimental;
 
+import java.util.Random;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.letters;
+import static info.debatty.java.stringsimilarity.testutil.RandomStrings.randomString;
+import static info.debatty.java.stringsimilarity.testutil.ReferenceDistances.sift4;
 
 /**
  *
@@ -33,6 +38,8 @@ import org.junit.Test;
  */
 public class Sift4Test {
 
+    private static final String ALPHABET = "abcd";
+
     /**
      * Test of distance method, of class Sift4.
      */
@@ -41,13 +48,12 @@ public class Sift4Test {
         System.out.println("SIFT4 distance");
         String s1 = "This is the first string";
         String s2 = "And this is another string";
-        Sift4 sift4 = new Sift4();
-        sift4.setMaxOffset(5);
+        Sift4 sift4 = new Sift4(5);
         double expResult =  11.0;
         double result = sift4.distance(s1, s2);
         assertEquals(expResult, result, 0.0);
 
-        sift4.setMaxOffset(10);
+        sift4 = new Sift4(10);
         assertEquals(
                 12.0,
                 sift4.distance(
@@ -56,4 +62,67 @@ public class Sift4Test {
                 0.0);
     }
 
+    /**
+     * The ring buffer implementation gives the same values as the original
+     * implementation, and the maximum offset can be given to the
+     * constructor.
+     */
+    @Test
+    public final void testSameValues() {
+        Random rand = new Random(17320);
+        for (int i = 0; i < 5000; i++) {
+            int max_offset = rand.nextInt(20);
+            String alphabet = letters(1 + rand.nextInt(8));
+            String s1 = randomString(rand, rand.nextInt(80), alphabet);
+            String s2 = randomString(rand, rand.nextInt(80), alphabet);
+            if (rand.nextBoolean()) {
+                s2 = s1.substring(0, rand.nextInt(s1.length() + 1)) + s2;
+            }
+
+            assertEquals(sift4(s1, s2, max_offset),
+                    new Sift4(max_offset).distance(s1, s2), 0.0);
+        }
+
+        // the buffer of offsets is bounded by the length of the strings
+        assertEquals(sift4("abcdef", "badcfe", Integer.MAX_VALUE),
+                new Sift4(Integer.MAX_VALUE).distance("abcdef", "badcfe"),
+                0.0);
+    }
+
+    /**
+     * With a maximum distance, the result is either the distance, or a
+     * value larger than the maximum distance.
+     */
+    @Test
+    public final void testMaxDistance() {
+        Random rand = new Random(22360);
+        for (int i = 0; i < 5000; i++) {
+            int max_offset = 1 + rand.nextInt(10);
+            int max_distance = rand.nextInt(30);
+            String s1 = randomString(rand, rand.nextInt(60), ALPHABET);
+            String s2 = randomString(rand, rand.nextInt(60), ALPHABET);
+
+            Sift4 sift4 = new Sift4(max_offset, max_distance);
+            double result = sift4.distance(s1, s2);
+            double expected = sift4(s1, s2, max_offset);
+            assertTrue(result == expected || result > max_distance);
+        }
+
+        // identical strings never exceed the maximum distance
+        assertEquals(0.0, new Sift4(10, 0).distance("abcdef", "abcdef"), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testNegativeMaxDistance() {
+        new Sift4(10, -1);
+    }
+
+    /**
+     * Sift4 is immutable: the deprecated setter throws.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    @SuppressWarnings("deprecation")
+    public final void testSetMaxOffset() {
+        new Sift4().setMaxOffset(5);
+    }
 }
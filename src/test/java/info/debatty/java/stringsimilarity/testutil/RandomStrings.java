@@ -0,0 +1,38 @@
+package info.debatty.java.stringsimilarity.testutil;
+
+import java.util.Random;
+
+/**
+ * Random strings for the tests that compare an implementation with a
+ * reference implementation.
+ */
+public final class RandomStrings {
+
+    private RandomStrings() {
+    }
+
+    /**
+     * Random string of the given length, with characters drawn uniformly
+     * from alphabet.
+     */
+    public static String randomString(
+            final Random rand, final int length, final String alphabet) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(rand.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Alphabet of the given size: the consecutive characters starting at
+     * 'a' (beyond 'z' for large sizes).
+     */
+    public static String letters(final int size) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            builder.append((char) ('a' + i));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,474 @@
+package info.debatty.java.stringsimilarity.testutil;
+
+import info.debatty.java.stringsimilarity.CharacterInsDelInterface;
+import info.debatty.java.stringsimilarity.CharacterSubstitutionInterface;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Textbook implementations of the metrics, with a full dynamic programming
+ * matrix and no optimization. The tests compare the optimized
+ * implementations with these on random strings.
+ */
+public final class ReferenceDistances {
+
+    private ReferenceDistances() {
+    }
+
+    /**
+     * Levenshtein distance.
+     */
+    public static int levenshtein(final String s1, final String s2) {
+        int[][] d = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= s2.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(
+                        Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1),
+                        d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[s1.length()][s2.length()];
+    }
+
+    /**
+     * Unrestricted Damerau-Levenshtein distance (Lowrance-Wagner algorithm).
+     */
+    public static int damerau(final String s1, final String s2) {
+        int inf = s1.length() + s2.length();
+        int[][] h = new int[s1.length() + 2][s2.length() + 2];
+        int[] da = new int[Character.MAX_VALUE + 1];
+        h[0][0] = inf;
+        for (int i = 0; i <= s1.length(); i++) {
+            h[i + 1][0] = inf;
+            h[i + 1][1] = i;
+        }
+        for (int j = 0; j <= s2.length(); j++) {
+            h[0][j + 1] = inf;
+            h[1][j + 1] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            int db = 0;
+            for (int j = 1; j <= s2.length(); j++) {
+                int i1 = da[s2.charAt(j - 1)];
+                int j1 = db;
+                int cost = 1;
+                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
+                    cost = 0;
+                    db = j;
+                }
+                h[i + 1][j + 1] = Math.min(
+                        Math.min(h[i][j] + cost, h[i + 1][j] + 1),
+                        Math.min(h[i][j + 1] + 1,
+                                h[i1][j1] + (i - i1 - 1) + 1 + (j - j1 - 1)));
+            }
+            da[s1.charAt(i - 1)] = i;
+        }
+        return h[s1.length() + 1][s2.length() + 1];
+    }
+
+    /**
+     * Optimal string alignment distance.
+     */
+    public static int osa(final String s1, final String s2) {
+        int[][] d = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= s2.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(
+                        Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1),
+                        d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1
+                        && s1.charAt(i - 1) == s2.charAt(j - 2)
+                        && s1.charAt(i - 2) == s2.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + cost);
+                }
+            }
+        }
+        return d[s1.length()][s2.length()];
+    }
+
+    /**
+     * Length of the longest common subsequence.
+     */
+    public static int longestCommonSubsequence(final String s1, final String s2) {
+        int[][] c = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
+                    c[i][j] = c[i - 1][j - 1] + 1;
+                } else {
+                    c[i][j] = Math.max(c[i][j - 1], c[i - 1][j]);
+                }
+            }
+        }
+        return c[s1.length()][s2.length()];
+    }
+
+    /**
+     * Weighted Levenshtein distance, with unit insertion and deletion costs
+     * if charchange is null.
+     */
+    public static double weightedLevenshtein(
+            final String s1, final String s2,
+            final CharacterSubstitutionInterface charsub,
+            final CharacterInsDelInterface charchange) {
+        double[][] d = new double[s1.length() + 1][s2.length() + 1];
+        for (int i = 1; i <= s1.length(); i++) {
+            d[i][0] = d[i - 1][0] + 1;
+            if (charchange != null) {
+                d[i][0] = d[i - 1][0] + charchange.deletionCost(
+                        s1.charAt(i - 1));
+            }
+        }
+        for (int j = 1; j <= s2.length(); j++) {
+            d[0][j] = d[0][j - 1] + 1;
+            if (charchange != null) {
+                d[0][j] = d[0][j - 1] + charchange.insertionCost(
+                        s2.charAt(j - 1));
+            }
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                char c1 = s1.charAt(i - 1);
+                char c2 = s2.charAt(j - 1);
+                double deletion = 1;
+                double insertion = 1;
+                if (charchange != null) {
+                    deletion = charchange.deletionCost(c1);
+                    insertion = charchange.insertionCost(c2);
+                }
+                double substitution = 0;
+                if (c1 != c2) {
+                    substitution = charsub.cost(c1, c2);
+                }
+                d[i][j] = Math.min(
+                        Math.min(d[i - 1][j] + deletion,
+                                d[i][j - 1] + insertion),
+                        d[i - 1][j - 1] + substitution);
+            }
+        }
+        return d[s1.length()][s2.length()];
+    }
+
+    /**
+     * Jaro-Winkler similarity, with the default threshold (0.7).
+     */
+    public static double jaroWinkler(final String s1, final String s2) {
+        if (s1.equals(s2)) {
+            return 1;
+        }
+
+        String max, min;
+        if (s1.length() > s2.length()) {
+            max = s1;
+            min = s2;
+        } else {
+            max = s2;
+            min = s1;
+        }
+        int range = Math.max(max.length() / 2 - 1, 0);
+        int[] match_indexes = new int[min.length()];
+        Arrays.fill(match_indexes, -1);
+        boolean[] match_flags = new boolean[max.length()];
+        int matches = 0;
+        for (int mi = 0; mi < min.length(); mi++) {
+            char c1 = min.charAt(mi);
+            for (int xi = Math.max(mi - range, 0),
+                    xn = Math.min(mi + range + 1, max.length());
+                    xi < xn;
+                    xi++) {
+                if (!match_flags[xi] && c1 == max.charAt(xi)) {
+                    match_indexes[mi] = xi;
+                    match_flags[xi] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        char[] ms1 = new char[matches];
+        char[] ms2 = new char[matches];
+        for (int i = 0, si = 0; i < min.length(); i++) {
+            if (match_indexes[i] != -1) {
+                ms1[si] = min.charAt(i);
+                si++;
+            }
+        }
+        for (int i = 0, si = 0; i < max.length(); i++) {
+            if (match_flags[i]) {
+                ms2[si] = max.charAt(i);
+                si++;
+            }
+        }
+        int transpositions = 0;
+        for (int mi = 0; mi < ms1.length; mi++) {
+            if (ms1[mi] != ms2[mi]) {
+                transpositions++;
+            }
+        }
+        int prefix = 0;
+        for (int mi = 0; mi < min.length(); mi++) {
+            if (s1.charAt(mi) == s2.charAt(mi)) {
+                prefix++;
+            } else {
+                break;
+            }
+        }
+
+        float m = matches;
+        if (m == 0) {
+            return 0f;
+        }
+        double j = ((m / s1.length() + m / s2.length()
+                + (m - transpositions / 2) / m)) / 3;
+        double jw = j;
+        if (j > 0.7) {
+            jw = j + Math.min(0.1, 1.0 / max.length()) * prefix * (1 - j);
+        }
+        return jw;
+    }
+
+    /**
+     * N-gram distance, as defined by Kondrak.
+     */
+    public static double ngram(
+            final String s0, final String s1, final int n) {
+        if (s0.equals(s1)) {
+            return 0;
+        }
+
+        final char special = '\n';
+        final int sl = s0.length();
+        final int tl = s1.length();
+
+        if (sl == 0 || tl == 0) {
+            return 1;
+        }
+
+        int cost = 0;
+        if (sl < n || tl < n) {
+            for (int i = 0, ni = Math.min(sl, tl); i < ni; i++) {
+                if (s0.charAt(i) == s1.charAt(i)) {
+                    cost++;
+                }
+            }
+            return (float) cost / Math.max(sl, tl);
+        }
+
+        char[] sa = new char[sl + n - 1];
+        for (int i = 0; i < sa.length; i++) {
+            if (i < n - 1) {
+                sa[i] = special;
+            } else {
+                sa[i] = s0.charAt(i - n + 1);
+            }
+        }
+        float[] p = new float[sl + 1];
+        float[] d = new float[sl + 1];
+        float[] d2;
+        char[] t_j = new char[n];
+
+        for (int i = 0; i <= sl; i++) {
+            p[i] = i;
+        }
+
+        for (int j = 1; j <= tl; j++) {
+            if (j < n) {
+                for (int ti = 0; ti < n - j; ti++) {
+                    t_j[ti] = special;
+                }
+                for (int ti = n - j; ti < n; ti++) {
+                    t_j[ti] = s1.charAt(ti - (n - j));
+                }
+            } else {
+                t_j = s1.substring(j - n, j).toCharArray();
+            }
+            d[0] = j;
+            for (int i = 1; i <= sl; i++) {
+                cost = 0;
+                int tn = n;
+                for (int ni = 0; ni < n; ni++) {
+                    if (sa[i - 1 + ni] != t_j[ni]) {
+                        cost++;
+                    } else if (sa[i - 1 + ni] == special) {
+                        tn--;
+                    }
+                }
+                float ec = (float) cost / tn;
+                d[i] = Math.min(
+                        Math.min(d[i - 1] + 1, p[i] + 1), p[i - 1] + ec);
+            }
+            d2 = p;
+            p = d;
+            d = d2;
+        }
+
+        return p[sl] / Math.max(tl, sl);
+    }
+
+    /**
+     * Ratcliff/Obershelp similarity, computed from the list of matching
+     * substrings.
+     */
+    public static double ratcliffObershelp(final String s1, final String s2) {
+        if (s1.equals(s2)) {
+            return 1.0d;
+        }
+
+        int sum_of_matches = 0;
+        for (String match : getMatchList(s1, s2)) {
+            sum_of_matches += match.length();
+        }
+
+        return 2.0d * sum_of_matches / (s1.length() + s2.length());
+    }
+
+    private static List<String> getMatchList(final String s1, final String s2) {
+        List<String> list = new ArrayList<String>();
+        String match = frontMaxMatch(s1, s2);
+
+        if (match.length() > 0) {
+            String frontsource = s1.substring(0, s1.indexOf(match));
+            String fronttarget = s2.substring(0, s2.indexOf(match));
+            String endsource = s1.substring(s1.indexOf(match) + match.length());
+            String endtarget = s2.substring(s2.indexOf(match) + match.length());
+
+            list.add(match);
+            list.addAll(getMatchList(frontsource, fronttarget));
+            list.addAll(getMatchList(endsource, endtarget));
+        }
+
+        return list;
+    }
+
+    private static String frontMaxMatch(final String s1, final String s2) {
+        int longest = 0;
+        String longestsubstring = "";
+
+        for (int i = 0; i < s1.length(); ++i) {
+            for (int j = i + 1; j <= s1.length(); ++j) {
+                String substring = s1.substring(i, j);
+                if (s2.contains(substring) && substring.length() > longest) {
+                    longest = substring.length();
+                    longestsubstring = substring;
+                }
+            }
+        }
+
+        return longestsubstring;
+    }
+
+    /**
+     * Original implementation of Sift4, with a list of offsets.
+     */
+    public static double sift4(
+            final String s1, final String s2, final int max_offset) {
+
+        class Offset {
+
+            private final int c1;
+            private final int c2;
+            private boolean trans;
+
+            Offset(final int c1, final int c2, final boolean trans) {
+                this.c1 = c1;
+                this.c2 = c2;
+                this.trans = trans;
+            }
+        }
+
+        if (s1.isEmpty()) {
+            return s2.length();
+        }
+
+        if (s2.isEmpty()) {
+            return s1.length();
+        }
+
+        int l1 = s1.length();
+        int l2 = s2.length();
+        int c1 = 0;
+        int c2 = 0;
+        int lcss = 0;
+        int local_cs = 0;
+        int trans = 0;
+        LinkedList<Offset> offset_arr = new LinkedList<Offset>();
+
+        while ((c1 < l1) && (c2 < l2)) {
+            if (s1.charAt(c1) == s2.charAt(c2)) {
+                local_cs++;
+                boolean is_trans = false;
+                int i = 0;
+                while (i < offset_arr.size()) {
+                    Offset ofs = offset_arr.get(i);
+                    if (c1 <= ofs.c1 || c2 <= ofs.c2) {
+                        is_trans =
+                                Math.abs(c2 - c1) >= Math.abs(ofs.c2 - ofs.c1);
+                        if (is_trans) {
+                            trans++;
+                        } else if (!ofs.trans) {
+                            ofs.trans = true;
+                            trans++;
+                        }
+                        break;
+                    } else if (c1 > ofs.c2 && c2 > ofs.c1) {
+                        offset_arr.remove(i);
+                    } else {
+                        i++;
+                    }
+                }
+                offset_arr.add(new Offset(c1, c2, is_trans));
+
+            } else {
+                lcss += local_cs;
+                local_cs = 0;
+                if (c1 != c2) {
+                    c1 = Math.min(c1, c2);
+                    c2 = c1;
+                }
+
+                for (
+                        int i = 0;
+                        i < max_offset && (c1 + i < l1 || c2 + i < l2);
+                        i++) {
+
+                    if ((c1 + i < l1) && (s1.charAt(c1 + i) == s2.charAt(c2))) {
+                        c1 += i - 1;
+                        c2--;
+                        break;
+                    }
+
+                    if ((c2 + i < l2) && (s1.charAt(c1) == s2.charAt(c2 + i))) {
+                        c1--;
+                        c2 += i - 1;
+                        break;
+                    }
+                }
+            }
+            c1++;
+            c2++;
+            if ((c1 >= l1) || (c2 >= l2)) {
+                lcss += local_cs;
+                local_cs = 0;
+                c1 = Math.min(c1, c2);
+                c2 = c1;
+            }
+        }
+        lcss += local_cs;
+        return Math.round(Math.max(l1, l2) - lcss + trans);
+    }
+}